@@ -0,0 +1,102 @@
+package com.roach.antieesa.benchmark;
+
+import com.roach.antieesa.checks.CheckManager;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameCapture;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.checks.combat.KillAuraCheck;
+import com.roach.antieesa.checks.combat.MultiTargetCheck;
+import com.roach.antieesa.checks.combat.ReachCheck;
+import com.roach.antieesa.checks.combat.RotationAuraCheck;
+import com.roach.antieesa.checks.movement.SpeedCheck;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.data.PlayerDataManager;
+import com.roach.antieesa.logging.ViolationLogger;
+import com.roach.antieesa.violations.ViolationManager;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * One player wired through the real managers, with a legit move and a legit
+ * hit ready to dispatch. Shared by the benchmark states.
+ */
+class BenchmarkFixture {
+    final File dataFolder;
+    final Plugin plugin;
+    final ViolationManager violationManager;
+    final ViolationLogger violationLogger;
+    final PlayerDataManager playerDataManager;
+    final CheckManager checkManager;
+
+    final SpeedCheck speedCheck = new SpeedCheck();
+    final KillAuraCheck killAuraCheck = new KillAuraCheck();
+    final RotationAuraCheck rotationAuraCheck = new RotationAuraCheck();
+    final MultiTargetCheck multiTargetCheck = new MultiTargetCheck();
+    final ReachCheck reachCheck = new ReachCheck();
+
+    final Stubs.EntityValues playerValues = new Stubs.EntityValues(1, "BenchPlayer");
+    final Stubs.EntityValues targetValues = new Stubs.EntityValues(2, "BenchTarget");
+    final Player player;
+    final LivingEntity target;
+    final PlayerData data;
+
+    // Walking 0.2 blocks along x, under the walk limit
+    final PlayerMoveEvent legitMove;
+
+    // Facing +z with the target 2.5 blocks ahead
+    final EntityDamageByEntityEvent legitHit;
+
+    // The same inputs as captured frames, for calling checks directly
+    final MovementFrame legitMoveFrame;
+    final CombatFrame legitHitFrame;
+
+    // A flying packet then an attack 50ms later, fed alternately so KillAura also times the attack
+    final PacketFrame[] legitPacketFrames = {
+            new PacketFrame(0, PacketFrame.Kind.FLYING),
+            new PacketFrame(50, PacketFrame.Kind.ATTACK)
+    };
+
+    BenchmarkFixture() throws IOException {
+        this.dataFolder = Files.createTempDirectory("antieesa-jmh").toFile();
+        this.plugin = Stubs.plugin(dataFolder);
+        this.violationManager = new ViolationManager();
+        this.violationLogger = new ViolationLogger(plugin);
+        this.playerDataManager = new PlayerDataManager();
+        this.checkManager = new CheckManager(plugin, violationManager, violationLogger, playerDataManager);
+
+        checkManager.registerCheck(speedCheck);
+        checkManager.registerCheck(killAuraCheck);
+        checkManager.registerCheck(rotationAuraCheck);
+        checkManager.registerCheck(multiTargetCheck);
+        checkManager.registerCheck(reachCheck);
+
+        playerValues.y = 64;
+        targetValues.y = 64;
+        targetValues.z = 2.5;
+
+        this.player = Stubs.player(playerValues);
+        this.target = Stubs.livingEntity(targetValues);
+        this.data = playerDataManager.create(player, checkManager.getChecks());
+
+        this.legitMove = new PlayerMoveEvent(player, new Location(null, 0, 64, 0), new Location(null, 0.2, 64, 0));
+        this.legitHit = Stubs.attack(player, target);
+
+        data.refreshAttributes(player, 0);
+        FrameCapture capture = new FrameCapture();
+        this.legitMoveFrame = capture.movement(legitMove, data);
+        this.legitHitFrame = capture.combat(player, target);
+    }
+
+    void close() {
+        violationLogger.shutdown();
+    }
+}
@@ -0,0 +1,38 @@
+package com.roach.antieesa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * Full dispatch through CheckManager's event handlers (runChecks and every
+ * interested check) for the two hot event types.
+ */
+@State(Scope.Thread)
+public class CheckManagerBenchmark {
+    private BenchmarkFixture fixture;
+
+    @Setup
+    public void setup() throws IOException {
+        fixture = new BenchmarkFixture();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void playerMove() {
+        fixture.checkManager.onPlayerMove(fixture.legitMove);
+    }
+
+    @Benchmark
+    public void entityDamage() {
+        fixture.checkManager.onEntityDamage(fixture.legitHit);
+    }
+}
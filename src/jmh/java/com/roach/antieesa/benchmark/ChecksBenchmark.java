@@ -0,0 +1,56 @@
+package com.roach.antieesa.benchmark;
+
+import com.roach.antieesa.checks.CheckResult;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * Each check's evaluation in isolation from a captured frame, on the pass path.
+ */
+@State(Scope.Thread)
+public class ChecksBenchmark {
+    private BenchmarkFixture fixture;
+    private int packet;
+
+    @Setup
+    public void setup() throws IOException {
+        fixture = new BenchmarkFixture();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public CheckResult speed() {
+        return fixture.speedCheck.checkMovement(fixture.data, fixture.legitMoveFrame);
+    }
+
+    @Benchmark
+    public CheckResult killAura() {
+        PacketFrame[] frames = fixture.legitPacketFrames;
+        return fixture.killAuraCheck.checkPacket(fixture.data, frames[packet++ & 1]);
+    }
+
+    @Benchmark
+    public CheckResult rotationAura() {
+        return fixture.rotationAuraCheck.checkCombat(fixture.data, fixture.legitHitFrame);
+    }
+
+    @Benchmark
+    public CheckResult multiTarget() {
+        return fixture.multiTargetCheck.checkCombat(fixture.data, fixture.legitHitFrame);
+    }
+
+    @Benchmark
+    public CheckResult reach() {
+        return fixture.reachCheck.checkCombat(fixture.data, fixture.legitHitFrame);
+    }
+}
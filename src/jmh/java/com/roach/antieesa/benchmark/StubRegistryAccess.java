@@ -0,0 +1,127 @@
+package com.roach.antieesa.benchmark;
+
+import io.papermc.paper.registry.RegistryAccess;
+import io.papermc.paper.registry.RegistryKey;
+import org.bukkit.Color;
+import org.bukkit.Keyed;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.potion.PotionEffectTypeCategory;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry access for running API code outside a server. Loaded through
+ * META-INF/services; only the mob effect registry has entries, which is
+ * enough for PotionEffectType's constants to initialize.
+ */
+public class StubRegistryAccess implements RegistryAccess {
+
+    // Still abstract in RegistryAccess, so it has to be implemented
+    @SuppressWarnings("removal")
+    @Override
+    public <T extends Keyed> Registry<T> getRegistry(Class<T> type) {
+        return registry(type == PotionEffectType.class);
+    }
+
+    @Override
+    public <T extends Keyed> Registry<T> getRegistry(RegistryKey<T> registryKey) {
+        return registry(registryKey == RegistryKey.MOB_EFFECT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Keyed> Registry<T> registry(boolean effects) {
+        Map<NamespacedKey, Keyed> entries = new ConcurrentHashMap<>();
+
+        return (Registry<T>) Proxy.newProxyInstance(StubRegistryAccess.class.getClassLoader(),
+                new Class<?>[]{Registry.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "get", "getOrThrow" -> {
+                        if (!effects) {
+                            throw new UnsupportedOperationException("No stub entries for this registry");
+                        }
+                        NamespacedKey key = (NamespacedKey) args[0];
+                        yield entries.computeIfAbsent(key, StubEffectType::new);
+                    }
+                    case "size" -> entries.size();
+                    case "iterator" -> entries.values().iterator();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * PotionEffectType still declares its deprecated getters abstract, so
+     * those are implemented with the warning suppressed on each.
+     */
+    private static class StubEffectType extends PotionEffectType {
+        private final NamespacedKey key;
+
+        StubEffectType(NamespacedKey key) {
+            this.key = key;
+        }
+
+        public PotionEffect createEffect(int duration, int amplifier) {
+            return new PotionEffect(this, duration, amplifier);
+        }
+
+        public boolean isInstant() {
+            return false;
+        }
+
+        public PotionEffectTypeCategory getCategory() {
+            return PotionEffectTypeCategory.NEUTRAL;
+        }
+
+        public Color getColor() {
+            return Color.WHITE;
+        }
+
+        @SuppressWarnings("removal")
+        public double getDurationModifier() {
+            return 1.0;
+        }
+
+        @SuppressWarnings("removal")
+        public int getId() {
+            return 0;
+        }
+
+        @SuppressWarnings("deprecation")
+        public String getName() {
+            return key.getKey();
+        }
+
+        public Map<Attribute, AttributeModifier> getEffectAttributes() {
+            return Collections.emptyMap();
+        }
+
+        public double getAttributeModifierAmount(Attribute attribute, int amplifier) {
+            return 0;
+        }
+
+        public Category getEffectCategory() {
+            return Category.NEUTRAL;
+        }
+
+        public NamespacedKey getKey() {
+            return key;
+        }
+
+        @SuppressWarnings("removal")
+        public String getTranslationKey() {
+            return key.getKey();
+        }
+
+        public String translationKey() {
+            return key.getKey();
+        }
+    }
+}
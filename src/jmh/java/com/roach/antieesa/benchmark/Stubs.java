@@ -0,0 +1,183 @@
+package com.roach.antieesa.benchmark;
+
+import com.google.common.base.Function;
+import org.bukkit.Location;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Synthetic Bukkit objects for benchmarks. Built on dynamic proxies of the
+ * API interfaces, so no server is needed. Only the methods the checks and
+ * managers call return meaningful values; everything else returns a zero value.
+ */
+public final class Stubs {
+    private static final Logger SILENT = Logger.getLogger("AntiEesa-Benchmark");
+
+    static {
+        SILENT.setUseParentHandlers(false);
+        SILENT.setLevel(Level.OFF);
+    }
+
+    private Stubs() {
+    }
+
+    /**
+     * Mutable backing values for a stubbed player or entity.
+     */
+    public static class EntityValues {
+        public final UUID uuid = UUID.randomUUID();
+        public final int entityId;
+        public final String name;
+        public double x;
+        public double y;
+        public double z;
+        public float yaw;
+        public float pitch;
+        public double height = 1.8;
+        public double width = 0.6;
+        public boolean sprinting;
+
+        public EntityValues(int entityId, String name) {
+            this.entityId = entityId;
+            this.name = name;
+        }
+
+        Location location() {
+            return new Location(null, x, y, z, yaw, pitch);
+        }
+
+        Location eyeLocation() {
+            return new Location(null, x, y + eyeHeight(), z, yaw, pitch);
+        }
+
+        double eyeHeight() {
+            return height * 0.85;
+        }
+    }
+
+    public static Player player(EntityValues values) {
+        return proxy(Player.class, values);
+    }
+
+    public static LivingEntity livingEntity(EntityValues values) {
+        return proxy(LivingEntity.class, values);
+    }
+
+    /**
+     * A melee hit for 1 damage. The only constructor not marked for removal
+     * still takes the modifier maps, and DamageModifier itself is deprecated.
+     */
+    @SuppressWarnings("deprecation")
+    public static EntityDamageByEntityEvent attack(Entity damager, Entity target) {
+        Map<EntityDamageEvent.DamageModifier, Double> modifiers = new EnumMap<>(EntityDamageEvent.DamageModifier.class);
+        modifiers.put(EntityDamageEvent.DamageModifier.BASE, 1.0);
+        Map<EntityDamageEvent.DamageModifier, Function<Double, Double>> functions =
+                new EnumMap<>(EntityDamageEvent.DamageModifier.class);
+        functions.put(EntityDamageEvent.DamageModifier.BASE, damage -> damage);
+
+        return new EntityDamageByEntityEvent(damager, target, EntityDamageEvent.DamageCause.ENTITY_ATTACK,
+                proxy(DamageSource.class, null), modifiers, functions, false);
+    }
+
+    public static Plugin plugin(File dataFolder) {
+        return (Plugin) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> SILENT;
+                    case "getName" -> "AntiEesa";
+                    default -> defaultValue(proxy, method, args);
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, EntityValues values) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (values == null) {
+                return defaultValue(proxy, method, args);
+            }
+
+            return switch (method.getName()) {
+                case "getUniqueId" -> values.uuid;
+                case "getEntityId" -> values.entityId;
+                case "getName" -> values.name;
+                case "getLocation" -> args == null ? values.location() : copyInto(values, (Location) args[0]);
+                case "getEyeLocation" -> values.eyeLocation();
+                case "getEyeHeight" -> values.eyeHeight();
+                case "getX" -> values.x;
+                case "getY" -> values.y;
+                case "getZ" -> values.z;
+                case "getHeight" -> values.height;
+                case "getWidth" -> values.width;
+                case "isSprinting" -> values.sprinting;
+                case "isOnline", "isValid" -> true;
+                default -> defaultValue(proxy, method, args);
+            };
+        };
+
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Location copyInto(EntityValues values, Location target) {
+        target.setX(values.x);
+        target.setY(values.y);
+        target.setZ(values.z);
+        target.setYaw(values.yaw);
+        target.setPitch(values.pitch);
+        return target;
+    }
+
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Stub" + proxy.getClass().getInterfaces()[0].getSimpleName();
+            default:
+                break;
+        }
+
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.roach.antieesa.benchmark;
+
+import com.roach.antieesa.checks.CheckResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * Cost of recording a flag and of logging one, as seen by the calling thread.
+ * Logging only measures the enqueue side; once the writer falls behind the
+ * overflow policy drops lines, which is part of what this measures.
+ */
+@State(Scope.Thread)
+public class ViolationBenchmark {
+    private BenchmarkFixture fixture;
+    private CheckResult result;
+
+    @Setup
+    public void setup() throws IOException {
+        fixture = new BenchmarkFixture();
+        result = CheckResult.fail("Hit from 4.20 blocks away (max: 3.15)", 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int recordViolation() {
+        return fixture.violationManager.recordViolation(fixture.player, fixture.reachCheck, result);
+    }
+
+    @Benchmark
+    public void logViolation() {
+        fixture.violationLogger.logViolation(fixture.player, fixture.reachCheck, result, 5);
+    }
+}
@@ -4,13 +4,30 @@ import com.roach.antieesa.checks.*;
 import com.roach.antieesa.checks.combat.*;
 import com.roach.antieesa.checks.movement.*;
 import com.roach.antieesa.commands.ACCommand;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.data.PlayerDataManager;
+import com.roach.antieesa.logging.LogMaintenance;
 import com.roach.antieesa.logging.ViolationLogger;
+import com.roach.antieesa.profile.ProfileCache;
+import com.roach.antieesa.stats.StatsDumper;
 import com.roach.antieesa.violations.ViolationManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 
@@ -22,6 +39,14 @@ public class AntiEesa extends JavaPlugin implements Listener {
     private CheckManager checkManager;
     private ViolationManager violationManager;
     private ViolationLogger logger;
+    private PlayerDataManager playerDataManager;
+    // Null when profiles are disabled
+    private ProfileCache profileCache;
+
+    private static final long PERMISSION_REFRESH_TICKS = 100L;
+    private static final long OFFLINE_SWEEP_TICKS = 20L * 60;
+    private static final long LOG_MAINTENANCE_DELAY_TICKS = 20L * 60;
+    private static final long LOG_MAINTENANCE_INTERVAL_TICKS = 20L * 60 * 60;
 
 
 
@@ -30,14 +55,63 @@ public class AntiEesa extends JavaPlugin implements Listener {
         getServer().getPluginManager().registerEvents(this, this);
         instance = this;
 
+        saveDefaultConfig();
+
         this.violationManager = new ViolationManager();
-        this.logger = new ViolationLogger(this);
-        this.checkManager = new CheckManager(this, violationManager, logger);
+        this.logger = new ViolationLogger(this,
+                getConfig().getBoolean("logging.text", true),
+                getConfig().getBoolean("logging.journal", true),
+                getConfig().getBoolean("logging.database", false),
+                getConfig().getInt("logging.retention.max-age-days", 30));
+        this.playerDataManager = new PlayerDataManager();
+        this.checkManager = new CheckManager(this, violationManager, logger, playerDataManager, createCheckExecutor());
+
+        if (getConfig().getBoolean("profiles.enabled", true)) {
+            this.profileCache = new ProfileCache(new File(getDataFolder(), "profiles"),
+                    getConfig().getInt("profiles.cache-size", 2000), getLogger());
+
+            long saveTicks = Math.max(1, getConfig().getLong("profiles.save-interval-minutes", 5)) * 60 * 20;
+            getServer().getScheduler().runTaskTimerAsynchronously(this, profileCache::saveDirty, saveTicks, saveTicks);
+        }
 
 
         getServer().getPluginManager().registerEvents(checkManager, this);
 
         registerChecks();
+        applySettings();
+        checkManager.start();
+
+        // Players already online after a /reload never fire a join event
+        for (Player player : getServer().getOnlinePlayers()) {
+            setupPlayer(player);
+        }
+
+        // Permission plugins (LuckPerms etc.) and /op don't fire an event we can hook,
+        // so the cached bypass flags are re-resolved every 5 seconds
+        getServer().getScheduler().runTaskTimer(this,
+                () -> playerDataManager.refreshPermissions(getServer().getOnlinePlayers()),
+                PERMISSION_REFRESH_TICKS, PERMISSION_REFRESH_TICKS);
+
+        // Catches state whose quit was never seen, so memory stays proportional to online players
+        getServer().getScheduler().runTaskTimer(this, this::sweepOfflinePlayers,
+                OFFLINE_SWEEP_TICKS, OFFLINE_SWEEP_TICKS);
+
+        // Text log compression and retention
+        getServer().getScheduler().runTaskTimerAsynchronously(this, new LogMaintenance(
+                        logger.getLogsDirectory(), getLogger(),
+                        getConfig().getBoolean("logging.retention.compress", true),
+                        getConfig().getBoolean("logging.retention.merge-days", false),
+                        getConfig().getInt("logging.retention.max-age-days", 30),
+                        getConfig().getLong("logging.retention.max-total-mb", 1024)),
+                LOG_MAINTENANCE_DELAY_TICKS, LOG_MAINTENANCE_INTERVAL_TICKS);
+
+        // Periodic per-check cost dump, 0 disables
+        long dumpTicks = getConfig().getLong("stats.dump-interval-minutes", 5) * 60 * 20;
+        if (dumpTicks > 0) {
+            getServer().getScheduler().runTaskTimerAsynchronously(this,
+                    new StatsDumper(this, checkManager::getChecks), dumpTicks, dumpTicks);
+        }
+
         getCommand("ac").setExecutor(new ACCommand(this));
         getCommand("ac").setTabCompleter(new ACCommand(this));
 
@@ -46,12 +120,93 @@ public class AntiEesa extends JavaPlugin implements Listener {
 
     @Override
     public void onDisable() {
+        if (checkManager != null) {
+            checkManager.shutdown();
+        }
+
+        if (profileCache != null) {
+            profileCache.shutdown();
+        }
+
+        if (logger != null) {
+            logger.shutdown();
+        }
+
         getLogger().info("AntiEesa is disabled");
     }
 
+    /**
+     * Worker pool for async-checks mode, or null to run checks on the main thread.
+     * Only read on enable.
+     */
+    private CheckExecutor createCheckExecutor() {
+        if (!getConfig().getBoolean("async-checks.enabled", false)) {
+            return null;
+        }
+
+        CheckExecutor executor = new CheckExecutor(getConfig().getInt("async-checks.threads", 0), getLogger());
+        getLogger().info("Running checks on " + executor.getThreads() + " worker threads.");
+        return executor;
+    }
+
+    /**
+     * Push tuning values from config.yml into the checks and violation manager.
+     * Each check swaps in a new immutable settings object, so this is safe
+     * while checks are running on other threads.
+     */
+    private void applySettings() {
+        FileConfiguration config = getConfig();
+
+        for (Check check : checkManager.getChecks()) {
+            ConfigurationSection section = config.getConfigurationSection("checks." + check.getConfigKey());
+            check.loadConfig(section != null ? section : new MemoryConfiguration());
+        }
+
+        violationManager.setDecayTime(config.getLong("violations.decay-seconds", 30) * 1000);
+        checkManager.getCoalescer().setWindow(config.getLong("violations.coalesce-seconds", 5) * 1000);
+        checkManager.setRepeatOffenderPolicy(
+                config.getLong("profiles.repeat-offender-flags", 100),
+                config.getInt("profiles.threshold-reduction", 0));
+        checkManager.getLoadShedder().configure(
+                config.getBoolean("load-shedding.enabled", true),
+                config.getDouble("load-shedding.mspt-budget", 50.0));
+    }
+
+    /**
+     * Re-read config.yml and apply check settings, for /ac reload. Options that
+     * shape startup (async-checks, logging, speed source) still need a restart.
+     */
+    public void reloadSettings() {
+        reloadConfig();
+        applySettings();
+    }
+
+    /**
+     * Drop per-player state for anyone no longer online.
+     */
+    private void sweepOfflinePlayers() {
+        Set<UUID> online = new HashSet<>();
+        for (Player player : getServer().getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+
+        List<PlayerData> stale = playerDataManager.removeOffline(online);
+        for (PlayerData data : stale) {
+            releasePlayer(data);
+        }
+        int staleViolations = violationManager.retainPlayers(online);
+
+        if (!stale.isEmpty() || staleViolations > 0) {
+            getLogger().info("Evicted state of offline players: " + stale.size() + " player data, "
+                    + staleViolations + " violation entries");
+        }
+    }
+
     private void registerChecks() {
         // Movement checks
-        checkManager.registerCheck(new SpeedCheck());
+        checkManager.registerCheck(new SpeedCheck(
+                getConfig().getBoolean("checks.speed.per-tick-evaluation", false),
+                "packet".equalsIgnoreCase(getConfig().getString("checks.speed.source", "event"))));
         
         // Combat checks
         checkManager.registerCheck(new KillAuraCheck());
@@ -74,28 +229,62 @@ public class AntiEesa extends JavaPlugin implements Listener {
     public ViolationLogger getViolationLogger() {
         return logger;
     }
+    public PlayerDataManager getPlayerDataManager() {
+        return playerDataManager;
+    }
 
-    @EventHandler
+    /**
+     * Create the player's PlayerData, with their profile from the cache.
+     */
+    private void setupPlayer(Player player) {
+        PlayerData data = playerDataManager.create(player, checkManager.getChecks());
+        if (profileCache != null) {
+            data.setProfile(profileCache.get(player.getUniqueId()));
+        }
+        checkManager.handleJoin(data);
+    }
+
+    /**
+     * Counterpart of setupPlayer, for data already removed from the manager.
+     */
+    private void releasePlayer(PlayerData data) {
+        checkManager.handleQuit(data);
+        if (data.getProfile() != null) {
+            profileCache.release(data.getProfile());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Off the main thread, so join finds the profile already in memory
+        if (profileCache != null && event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            profileCache.preload(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        setupPlayer(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        PlayerData data = playerDataManager.get(event.getPlayer());
+        if (data != null) {
+            // Per-world permissions may differ
+            data.refreshBypass(event.getPlayer());
+            checkManager.handleWorldChange(data);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
         UUID uuid = event.getPlayer().getUniqueId();
 
         // Clean up check data
-        for (Check check : checkManager.getChecks()) {
-            if (check instanceof SpeedCheck) {
-                ((SpeedCheck) check).cleanup(uuid);
-            }
-            if (check instanceof KillAuraCheck) {
-                ((KillAuraCheck) check).cleanup(uuid);
-            }
-            if (check instanceof RotationAuraCheck) {
-                ((RotationAuraCheck) check).cleanup(uuid);
-            }
-            if (check instanceof MultiTargetCheck) {
-                ((MultiTargetCheck) check).cleanup(uuid);
-            }
-            if (check instanceof ReachCheck) {
-                ((ReachCheck) check).cleanup(uuid);
-            }
+        PlayerData data = playerDataManager.remove(uuid);
+        if (data != null) {
+            releasePlayer(data);
         }
 
         // Clean up violation data
@@ -0,0 +1,90 @@
+package com.roach.antieesa.capture;
+
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Layout of a capture file, gzip compressed, big-endian.
+ *
+ * Header: magic, version, player UUID, name, start time. Then a stream of
+ * records, each a type byte followed by its fields:
+ *   MOVE / PACKET_MOVE  timestamp, from xyz, to xyz, yaw, pitch, sprinting, speed amplifier
+ *   COMBAT              timestamp, eye xyz, yaw, pitch, target id, living, target xyz, width, height
+ *   TICK                server tick
+ *   PACKET              timestamp, attack (flying otherwise)
+ * A capture cut off by a crash simply ends at the last complete record.
+ */
+public final class CaptureFormat {
+    public static final int MAGIC = 0x41454350; // "AECP"
+    public static final short VERSION = 1;
+
+    public static final byte MOVE = 1;
+    public static final byte PACKET_MOVE = 2;
+    public static final byte COMBAT = 3;
+    public static final byte TICK = 4;
+    public static final byte PACKET = 5;
+
+    private CaptureFormat() {
+    }
+
+    static void writeMove(DataOutput out, MovementFrame frame) throws IOException {
+        out.writeLong(frame.timestamp());
+        out.writeDouble(frame.fromX());
+        out.writeDouble(frame.fromY());
+        out.writeDouble(frame.fromZ());
+        out.writeDouble(frame.toX());
+        out.writeDouble(frame.toY());
+        out.writeDouble(frame.toZ());
+        out.writeFloat(frame.yaw());
+        out.writeFloat(frame.pitch());
+        out.writeBoolean(frame.sprinting());
+        out.writeShort(frame.speedAmplifier());
+    }
+
+    static MovementFrame readMove(DataInput in) throws IOException {
+        return new MovementFrame(in.readLong(),
+                in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readFloat(), in.readFloat(),
+                in.readBoolean(), in.readShort());
+    }
+
+    static void writePacket(DataOutput out, PacketFrame frame) throws IOException {
+        out.writeLong(frame.timestamp());
+        out.writeBoolean(frame.isAttack());
+    }
+
+    static PacketFrame readPacket(DataInput in) throws IOException {
+        return new PacketFrame(in.readLong(), in.readBoolean() ? PacketFrame.Kind.ATTACK : PacketFrame.Kind.FLYING);
+    }
+
+    static void writeCombat(DataOutput out, CombatFrame frame) throws IOException {
+        out.writeLong(frame.timestamp());
+        out.writeDouble(frame.eyeX());
+        out.writeDouble(frame.eyeY());
+        out.writeDouble(frame.eyeZ());
+        out.writeFloat(frame.yaw());
+        out.writeFloat(frame.pitch());
+        out.writeInt(frame.targetId());
+        out.writeBoolean(frame.targetLiving());
+        out.writeDouble(frame.targetX());
+        out.writeDouble(frame.targetY());
+        out.writeDouble(frame.targetZ());
+        out.writeDouble(frame.targetWidth());
+        out.writeDouble(frame.targetHeight());
+    }
+
+    static CombatFrame readCombat(DataInput in) throws IOException {
+        return new CombatFrame(in.readLong(),
+                in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readFloat(), in.readFloat(),
+                in.readInt(), in.readBoolean(),
+                in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readDouble());
+    }
+}
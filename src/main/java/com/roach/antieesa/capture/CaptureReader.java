@@ -0,0 +1,105 @@
+package com.roach.antieesa.capture;
+
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the records of one capture file, see CaptureFormat.
+ * Needs nothing from the server, so it works in offline tools.
+ */
+public class CaptureReader implements Closeable {
+    /**
+     * Receives records in capture order.
+     */
+    public interface Visitor {
+        void move(MovementFrame frame, boolean fromPacket);
+
+        void combat(CombatFrame frame);
+
+        void tick(int tick);
+
+        void packet(PacketFrame frame);
+    }
+
+    private final DataInputStream in;
+    private final UUID uuid;
+    private final String name;
+    private final long startTime;
+
+    public CaptureReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+        try {
+            if (in.readInt() != CaptureFormat.MAGIC) {
+                throw new IOException("Not a capture file: " + file.getName());
+            }
+            short version = in.readShort();
+            if (version != CaptureFormat.VERSION) {
+                throw new IOException("Unsupported capture version " + version + ": " + file.getName());
+            }
+            this.uuid = new UUID(in.readLong(), in.readLong());
+            this.name = in.readUTF();
+            this.startTime = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Feed every remaining record to the visitor.
+     * @return the number of records read
+     */
+    public long replay(Visitor visitor) throws IOException {
+        long records = 0;
+
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                return records;
+            }
+
+            try {
+                switch (type) {
+                    case CaptureFormat.MOVE -> visitor.move(CaptureFormat.readMove(in), false);
+                    case CaptureFormat.PACKET_MOVE -> visitor.move(CaptureFormat.readMove(in), true);
+                    case CaptureFormat.COMBAT -> visitor.combat(CaptureFormat.readCombat(in));
+                    case CaptureFormat.TICK -> visitor.tick(in.readInt());
+                    case CaptureFormat.PACKET -> visitor.packet(CaptureFormat.readPacket(in));
+                    default -> throw new IOException("Unknown capture record type " + type);
+                }
+            } catch (EOFException e) {
+                // Cut off mid-record, the server stopped without closing the capture
+                return records;
+            }
+            records++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,294 @@
+package com.roach.antieesa.capture;
+
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the raw check inputs of selected players to capture files, for
+ * replaying offline (see CaptureReader and the replay task).
+ *
+ * Callers only enqueue frames (moves are copied, since callers reuse them); a
+ * daemon thread, started with the first capture, encodes and writes them. Same
+ * overflow policy as the log writer: queued records are bounded, and records
+ * are dropped and counted when the bound is reached. Opening and closing a
+ * capture share the queue, so they stay in order with the records, but are
+ * exempt from the bound: they are never dropped and never block the caller.
+ * When nobody is being captured every record call is one map check.
+ */
+public class InputRecorder implements Runnable {
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final long POLL_MS = 1000;
+
+    // Immutable, so shared across captures unlike SimpleDateFormat
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+
+    private final File directory;
+    private final Logger logger;
+
+    // Player UUID -> capture file, for players currently captured
+    private final Map<UUID, File> active = new ConcurrentHashMap<>();
+    // Unbounded for OPEN and CLOSE, records are bounded by queuedRecords
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queuedRecords = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Thread thread;
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private final Map<UUID, DataOutputStream> outputs = new HashMap<>();
+
+    private enum Action { OPEN, CLOSE, MOVE, PACKET_MOVE, COMBAT, TICK, PACKET }
+
+    // Fields used depend on the action, unused ones are null/0
+    private record Pending(Action action, UUID uuid, Object payload, int tick) {
+    }
+
+    private record Header(File file, String name, long startTime) {
+    }
+
+    public InputRecorder(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    /**
+     * Start capturing a player. Main thread.
+     * @return the capture file, or null if already capturing them
+     */
+    public synchronized File start(UUID uuid, String name) {
+        if (active.containsKey(uuid)) {
+            return null;
+        }
+
+        if (thread == null) {
+            thread = new Thread(this, "AntiEesa-Capture");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long now = System.currentTimeMillis();
+        String stamp = FILE_STAMP.format(Instant.ofEpochMilli(now));
+        File file = new File(directory, name + "_" + stamp + ".cap");
+
+        // Open and close must not be dropped, they bypass the record bound
+        queue.add(new Pending(Action.OPEN, uuid, new Header(file, name, now), 0));
+        active.put(uuid, file);
+        return file;
+    }
+
+    /**
+     * Stop capturing a player, e.g. on command or quit.
+     * @return the capture file, or null if they weren't being captured
+     */
+    public synchronized File stop(UUID uuid) {
+        File file = active.remove(uuid);
+        if (file != null) {
+            queue.add(new Pending(Action.CLOSE, uuid, null, 0));
+        }
+        return file;
+    }
+
+    public boolean isCapturing(UUID uuid) {
+        return !active.isEmpty() && active.containsKey(uuid);
+    }
+
+    public boolean isCapturingAnyone() {
+        return !active.isEmpty();
+    }
+
+    /**
+     * Queue a move. The frame is copied, the caller may refill it straight away.
+     */
+    public void recordMove(UUID uuid, MovementFrame frame, boolean fromPacket) {
+        offer(new Pending(fromPacket ? Action.PACKET_MOVE : Action.MOVE, uuid, frame.copy(), 0));
+    }
+
+    public void recordCombat(UUID uuid, CombatFrame frame) {
+        offer(new Pending(Action.COMBAT, uuid, frame, 0));
+    }
+
+    /**
+     * Mark a server tick in every active capture. Main thread.
+     */
+    public void recordTick(int tick) {
+        offer(new Pending(Action.TICK, null, null, tick));
+    }
+
+    public void recordPacket(UUID uuid, PacketFrame frame) {
+        offer(new Pending(Action.PACKET, uuid, frame, 0));
+    }
+
+    private void offer(Pending pending) {
+        if (queuedRecords.incrementAndGet() > QUEUE_CAPACITY) {
+            queuedRecords.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(pending);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Pending pending = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (pending != null) {
+                    write(pending);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested, the remaining records are written below
+                break;
+            }
+
+            long droppedRecords = dropped.getAndSet(0);
+            if (droppedRecords > 0) {
+                logger.warning("Dropped " + droppedRecords + " capture records (queue full)");
+            }
+        }
+
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            write(pending);
+        }
+        for (UUID uuid : outputs.keySet().toArray(new UUID[0])) {
+            close(uuid);
+        }
+    }
+
+    /**
+     * Stop the writer thread, closing every capture with what was queued.
+     */
+    public void shutdown() {
+        Thread writer;
+        synchronized (this) {
+            active.clear();
+            writer = thread;
+        }
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Pending pending) {
+        if (pending.action() != Action.OPEN && pending.action() != Action.CLOSE) {
+            queuedRecords.decrementAndGet();
+        }
+
+        if (pending.action() == Action.OPEN) {
+            open(pending.uuid(), (Header) pending.payload());
+            return;
+        }
+        if (pending.action() == Action.CLOSE) {
+            close(pending.uuid());
+            return;
+        }
+        if (pending.action() == Action.TICK) {
+            for (UUID uuid : outputs.keySet().toArray(new UUID[0])) {
+                writeRecord(uuid, pending);
+            }
+            return;
+        }
+        writeRecord(pending.uuid(), pending);
+    }
+
+    private void writeRecord(UUID uuid, Pending pending) {
+        DataOutputStream out = outputs.get(uuid);
+        if (out == null) {
+            // Queued before the capture started or after it stopped
+            return;
+        }
+
+        try {
+            switch (pending.action()) {
+                case MOVE, PACKET_MOVE -> {
+                    out.writeByte(pending.action() == Action.MOVE ? CaptureFormat.MOVE : CaptureFormat.PACKET_MOVE);
+                    CaptureFormat.writeMove(out, (MovementFrame) pending.payload());
+                }
+                case COMBAT -> {
+                    out.writeByte(CaptureFormat.COMBAT);
+                    CaptureFormat.writeCombat(out, (CombatFrame) pending.payload());
+                }
+                case TICK -> {
+                    out.writeByte(CaptureFormat.TICK);
+                    out.writeInt(pending.tick());
+                }
+                case PACKET -> {
+                    out.writeByte(CaptureFormat.PACKET);
+                    CaptureFormat.writePacket(out, (PacketFrame) pending.payload());
+                }
+                default -> {
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to write capture, stopping it: " + e.getMessage());
+            active.remove(uuid);
+            close(uuid);
+        }
+    }
+
+    private void open(UUID uuid, Header header) {
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+
+            // Plain streams rather than NIO channels: an interrupt during shutdown must not close the file
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(header.file()))));
+            out.writeInt(CaptureFormat.MAGIC);
+            out.writeShort(CaptureFormat.VERSION);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeUTF(header.name());
+            out.writeLong(header.startTime());
+            outputs.put(uuid, out);
+        } catch (IOException e) {
+            logger.warning("Failed to start capture " + header.file().getName() + ": " + e.getMessage());
+            active.remove(uuid);
+        }
+    }
+
+    private void close(UUID uuid) {
+        DataOutputStream out = outputs.remove(uuid);
+        if (out == null) {
+            return;
+        }
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close capture: " + e.getMessage());
+        }
+    }
+}
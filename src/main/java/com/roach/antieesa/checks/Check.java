@@ -1,25 +1,173 @@
 package com.roach.antieesa.checks;
 
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.stats.CheckStats;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
 
 
 public abstract class Check {
     private final String name;
     private final String description;
-    private boolean enabled;
-    private int violationThreshold;
+    private final int defaultThreshold;
+    // Read from check workers and packet threads, written by commands and /ac reload
+    private volatile boolean enabled;
+    private volatile int violationThreshold;
+    private int id = -1;
+    private final CheckStats stats = new CheckStats();
 
 
     public Check(String name, String description, int violationThreshold) {
         this.name = name;
         this.description = description;
         this.violationThreshold = violationThreshold;
+        this.defaultThreshold = violationThreshold;
         this.enabled = true;
     }
 
 
-    public abstract CheckResult check(Player player, Event event);
+    /**
+     * Apply this check's section of config.yml, see getConfigKey().
+     * Called on enable and on /ac reload, while checks may be running.
+     */
+    public final void loadConfig(ConfigurationSection config) {
+        this.enabled = config.getBoolean("enabled", true);
+        this.violationThreshold = config.getInt("threshold", defaultThreshold);
+        loadSettings(config);
+    }
+
+    /**
+     * Read check-specific tuning values. Implementations build an immutable
+     * settings object and publish it through a single volatile field, so a
+     * running check always sees one consistent set. Missing keys keep defaults.
+     */
+    protected void loadSettings(ConfigurationSection config) {
+    }
+
+    /**
+     * Section name under checks: in config.yml
+     */
+    public String getConfigKey() {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * Evaluate one move. Called for checks that declare MOVEMENT, on the main
+     * thread or on the player's check worker in async mode, so it must only
+     * use the frame and this check's own state.
+     */
+    public CheckResult checkMovement(PlayerData data, MovementFrame frame) {
+        return CheckResult.pass();
+    }
+
+    /**
+     * Evaluate one attack by the player. Called for checks that declare
+     * COMBAT, with the same threading as checkMovement.
+     */
+    public CheckResult checkCombat(PlayerData data, CombatFrame frame) {
+        return CheckResult.pass();
+    }
+
+    /**
+     * Evaluate one client packet. Called for checks that declare PACKET, on
+     * the player's network thread, so per-player state must be thread safe.
+     */
+    public CheckResult checkPacket(PlayerData data, PacketFrame frame) {
+        return CheckResult.pass();
+    }
+
+    /**
+     * Whether MOVEMENT frames for this check should come from the client's
+     * movement packets on the network thread instead of from PlayerMoveEvent.
+     */
+    public boolean usesMovementPackets() {
+        return false;
+    }
+
+    /**
+     * Whether CheckManager should call tick() for every online player once per
+     * server tick, for checks that aggregate events and evaluate in one pass.
+     */
+    public boolean isTicking() {
+        return false;
+    }
+
+    /**
+     * Per-tick evaluation, only called when isTicking() is true. Runs in order
+     * with the player's other checks, on their worker in async mode.
+     */
+    public CheckResult tick(PlayerData data) {
+        return CheckResult.pass();
+    }
+
+    /**
+     * Create this check's per-player state, stored in the player's PlayerData
+     * slot for this check. Return null if the check keeps no state.
+     */
+    public Object createPlayerState() {
+        return null;
+    }
+
+    /**
+     * Called when the player's PlayerData is created: on join, or on enable
+     * for players already online. Lifecycle hooks run in order with the
+     * player's frames, so with the same threading as checkMovement.
+     */
+    public void onJoin(PlayerData data) {
+    }
+
+    /**
+     * Called before the player's PlayerData is dropped, on quit or when the
+     * sweeper finds them offline. State in the player's slot goes with it;
+     * release anything the check keeps elsewhere.
+     */
+    public void onQuit(PlayerData data) {
+    }
+
+    /**
+     * Called after the player moved to another world, where positions and
+     * rotations from the old one no longer compare.
+     */
+    public void onWorldChange(PlayerData data) {
+    }
+
+    /**
+     * Frame types this check consumes. CheckManager only dispatches these
+     * frames to the check, so an empty set means it only runs from tick().
+     */
+    public Set<FrameType> getFrameTypes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Dense id assigned by CheckManager on registration, used to index per-player slots.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Set by CheckManager.registerCheck, or by offline tools that run checks
+     * without a manager (the capture replay).
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Timings and flag counts, recorded by whatever runs this check.
+     */
+    public CheckStats getStats() {
+        return stats;
+    }
 
     public String getName() {
         return name;
@@ -0,0 +1,94 @@
+package com.roach.antieesa.checks;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Worker pool for async check mode.
+ *
+ * Players are striped by UUID over single-thread executors, so one player's
+ * frames are always evaluated in submission order on the same thread and
+ * per-player check state needs no locking, while different players spread
+ * across cores.
+ *
+ * Overflow policy: each stripe's queue is bounded. When a stripe falls that
+ * far behind the frame is dropped and counted rather than run on the main
+ * thread (which would break per-player ordering).
+ */
+public class CheckExecutor {
+    private static final int QUEUE_CAPACITY = 4096;
+
+    private final ThreadPoolExecutor[] stripes;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Logger logger;
+
+    /**
+     * @param threads number of stripes, 0 or less picks one per spare core
+     */
+    public CheckExecutor(int threads, Logger logger) {
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+
+        this.logger = logger;
+        this.stripes = new ThreadPoolExecutor[threads];
+
+        AtomicInteger threadId = new AtomicInteger();
+        RejectedExecutionHandler dropPolicy = (task, executor) -> dropped.incrementAndGet();
+
+        for (int i = 0; i < threads; i++) {
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                    task -> {
+                        Thread thread = new Thread(task, "AntiEesa-Check-" + threadId.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    dropPolicy);
+        }
+    }
+
+    /**
+     * Run a task on the player's stripe, after everything already submitted for them.
+     */
+    public void execute(UUID uuid, Runnable task) {
+        stripes[Math.floorMod(uuid.hashCode(), stripes.length)].execute(task);
+    }
+
+    public int getThreads() {
+        return stripes.length;
+    }
+
+    /**
+     * Warn about frames dropped since the last call. Main thread.
+     */
+    void reportDropped() {
+        long droppedFrames = dropped.getAndSet(0);
+        if (droppedFrames > 0) {
+            logger.warning("Dropped " + droppedFrames + " check frames (check workers behind)");
+        }
+    }
+
+    /**
+     * Stop accepting frames and wait briefly for queued ones to finish.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+
+        try {
+            for (ThreadPoolExecutor stripe : stripes) {
+                stripe.awaitTermination(2, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,40 +1,176 @@
 package com.roach.antieesa.checks;
 
+import com.comphenix.protocol.ProtocolLibrary;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.roach.antieesa.capture.InputRecorder;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameCapture;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.data.EntityTracker;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.data.PlayerDataManager;
+import com.roach.antieesa.profile.PlayerProfile;
+import com.roach.antieesa.violations.ViolationCoalescer;
 import com.roach.antieesa.violations.ViolationManager;
 import com.roach.antieesa.logging.ViolationLogger;
 import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
-import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 
 
 public class CheckManager implements Listener {
     private final Plugin plugin;
     private final ViolationManager violationManager;
     private final ViolationLogger logger;
+    private final PlayerDataManager playerDataManager;
     private final List<Check> checks;
-    private final Map<Class<? extends Event>, List<Check>> eventCheckMap;
+    // Frame type -> checks that consume it, rebuilt on registration so dispatch is a plain array walk.
+    // MOVEMENT here is event-fed only, packet-fed movement checks are in packetMovementChecks
+    private final Map<FrameType, Check[]> frameChecks;
 
-    public CheckManager(Plugin plugin, ViolationManager violationManager, ViolationLogger logger) {
+    // Async mode: checks run on these workers from frames captured here. Null runs checks inline
+    private final CheckExecutor executor;
+    private final FrameCapture frameCapture;
+
+    // Samples move checks for clean players while the server is behind
+    private final LoadShedder loadShedder;
+
+    // Merges repeated flags per player per check before they reach the logs
+    private final ViolationCoalescer coalescer;
+
+    // Writes the frames of players being captured, for offline replay
+    private final InputRecorder inputRecorder;
+
+    // Recent positions of entities near players, for lag-compensated combat frames
+    private final EntityTracker entityTracker = new EntityTracker();
+
+    // Violations detected off the main thread (packet listeners), drained once per tick
+    private final Queue<PendingViolation> pendingViolations = new ConcurrentLinkedQueue<>();
+
+    // Checks fed from movement packets on the network thread instead of PlayerMoveEvent
+    private Check[] packetMovementChecks = new Check[0];
+
+    // Checks that aggregate input and evaluate once per server tick
+    private Check[] tickingChecks = new Check[0];
+
+    // Lower thresholds for players with this many lifetime flags on a check, see handleViolation
+    private record RepeatOffenders(long flags, int thresholdReduction) {
+    }
+
+    private volatile RepeatOffenders repeatOffenders = new RepeatOffenders(0, 0);
+
+    // Counted by our own tick task, used to cache per-tick player attributes
+    private int currentTick;
+
+    private static final Check[] NO_CHECKS = new Check[0];
+
+    private static final int DROP_REPORT_TICKS = 20;
+
+    private static class PendingViolation {
+        final Player player;
+        final Check check;
+        final CheckResult result;
+
+        PendingViolation(Player player, Check check, CheckResult result) {
+            this.player = player;
+            this.check = check;
+            this.result = result;
+        }
+    }
+
+    public CheckManager(Plugin plugin, ViolationManager violationManager, ViolationLogger logger,
+                        PlayerDataManager playerDataManager) {
+        this(plugin, violationManager, logger, playerDataManager, null);
+    }
+
+    /**
+     * @param executor workers for async mode, or null to run checks on the main thread
+     */
+    public CheckManager(Plugin plugin, ViolationManager violationManager, ViolationLogger logger,
+                        PlayerDataManager playerDataManager, CheckExecutor executor) {
         this.plugin = plugin;
+        this.executor = executor;
+        this.frameCapture = new FrameCapture(entityTracker);
+        this.loadShedder = new LoadShedder(violationManager, plugin.getLogger());
+        this.inputRecorder = new InputRecorder(new File(plugin.getDataFolder(), "captures"), plugin.getLogger());
         this.violationManager = violationManager;
         this.logger = logger;
+        this.coalescer = new ViolationCoalescer(logger);
+        this.playerDataManager = playerDataManager;
         this.checks = new ArrayList<>();
-        this.eventCheckMap = new HashMap<>();
+        this.frameChecks = new EnumMap<>(FrameType.class);
+    }
+
+
+    /**
+     * Start the per-tick task that processes queued violations and ticking checks.
+     */
+    public void start() {
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+
+        if (packetMovementChecks.length > 0) {
+            ProtocolLibrary.getProtocolManager().addPacketListener(
+                    new MovementPacketListener(plugin, this, playerDataManager));
+        }
+
+        if (frameChecks.containsKey(FrameType.PACKET)) {
+            ProtocolLibrary.getProtocolManager().addPacketListener(
+                    new PacketFrameListener(plugin, this, playerDataManager));
+        }
+    }
+
+
+    /**
+     * Stop the check workers, if running in async mode, close open captures
+     * and write out coalesced violations. Before the logger shuts down.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        inputRecorder.shutdown();
+        drainViolations();
+        coalescer.flushAll();
     }
 
 
     public void registerCheck(Check check) {
+        check.setId(checks.size());
         checks.add(check);
+        violationManager.registerCheck(check);
+
+        for (FrameType frameType : check.getFrameTypes()) {
+            if (frameType == FrameType.MOVEMENT && check.usesMovementPackets()) {
+                packetMovementChecks = Arrays.copyOf(packetMovementChecks, packetMovementChecks.length + 1);
+                packetMovementChecks[packetMovementChecks.length - 1] = check;
+                continue;
+            }
+
+            Check[] current = frameChecks.getOrDefault(frameType, NO_CHECKS);
+            Check[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = check;
+            frameChecks.put(frameType, updated);
+        }
+
+        if (check.isTicking()) {
+            tickingChecks = Arrays.copyOf(tickingChecks, tickingChecks.length + 1);
+            tickingChecks[tickingChecks.length - 1] = check;
+        }
     }
 
 
@@ -43,6 +179,31 @@ public class CheckManager implements Listener {
     }
 
 
+    /**
+     * Players with at least flags lifetime flags on a check (from their
+     * profile) have that check's threshold lowered by thresholdReduction,
+     * never below 1. A reduction of 0 turns this off.
+     */
+    public void setRepeatOffenderPolicy(long flags, int thresholdReduction) {
+        this.repeatOffenders = new RepeatOffenders(flags, Math.max(0, thresholdReduction));
+    }
+
+
+    public LoadShedder getLoadShedder() {
+        return loadShedder;
+    }
+
+
+    public ViolationCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+
+    public InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+
+
     public Check getCheck(String name) {
         return checks.stream()
                 .filter(c -> c.getName().equalsIgnoreCase(name))
@@ -50,16 +211,91 @@ public class CheckManager implements Listener {
                 .orElse(null);
     }
 
+    /**
+     * A player's PlayerData was just created. Main thread.
+     */
+    public void handleJoin(PlayerData data) {
+        runLifecycle(data, Check::onJoin);
+    }
+
+    /**
+     * A player's PlayerData is about to be dropped. Main thread.
+     */
+    public void handleQuit(PlayerData data) {
+        inputRecorder.stop(data.getUuid());
+        coalescer.flush(data.getUuid());
+        runLifecycle(data, Check::onQuit);
+    }
+
+    public void handleWorldChange(PlayerData data) {
+        runLifecycle(data, Check::onWorldChange);
+    }
+
+
+    /**
+     * Call a lifecycle hook on every check, queued behind the player's pending
+     * frames in async mode so checks see it in order.
+     */
+    private void runLifecycle(PlayerData data, BiConsumer<Check, PlayerData> hook) {
+        Check[] all = checks.toArray(NO_CHECKS);
+        Runnable task = () -> {
+            for (Check check : all) {
+                try {
+                    hook.accept(check, data);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+
+        if (executor == null) {
+            task.run();
+        } else {
+            executor.execute(data.getUuid(), task);
+        }
+    }
+
     //Movement Events
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
+        Check[] interested = frameChecks.getOrDefault(FrameType.MOVEMENT, NO_CHECKS);
+        if (interested.length == 0) {
+            return;
+        }
+
         Player player = event.getPlayer();
+        PlayerData data = prepare(player);
+        if (data == null) {
+            return;
+        }
+
+        // Captures keep every move even when load shedding skips checking it
+        boolean sampled = loadShedder.shouldCheckMove(data);
+        boolean capturing = inputRecorder.isCapturing(data.getUuid());
+        if (!sampled && !capturing) {
+            return;
+        }
 
-        if (player.hasPermission("anticheat.bypass")) {
+        MovementFrame frame = frameCapture.movement(event, data);
+        if (capturing) {
+            inputRecorder.recordMove(data.getUuid(), frame, false);
+        }
+        if (!sampled) {
             return;
         }
 
-        runChecks(player, event);
+        if (executor == null) {
+            runMovementChecks(player, data, frame, interested);
+        } else {
+            // The frame is refilled by the next move, the worker needs its own
+            MovementFrame copy = frame.copy();
+            executor.execute(data.getUuid(), () -> runMovementChecks(player, data, copy, interested));
+        }
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        loadShedder.onTickEnd(event.getTickDuration());
     }
 
     //Combat Events
@@ -69,39 +305,238 @@ public class CheckManager implements Listener {
             return;
         }
 
-        Player player = (Player) event.getDamager();
+        Check[] interested = frameChecks.getOrDefault(FrameType.COMBAT, NO_CHECKS);
+        if (interested.length == 0) {
+            return;
+        }
 
-        if (player.hasPermission("anticheat.bypass")) {
+        Player player = (Player) event.getDamager();
+        PlayerData data = prepare(player);
+        if (data == null) {
             return;
         }
 
-        runChecks(player, event);
+        entityTracker.markAttacker(player);
+        CombatFrame frame = frameCapture.combat(player, event.getEntity());
+        if (inputRecorder.isCapturing(data.getUuid())) {
+            inputRecorder.recordCombat(data.getUuid(), frame);
+        }
+
+        if (executor == null) {
+            runCombatChecks(player, data, frame, interested);
+        } else {
+            executor.execute(data.getUuid(), () -> runCombatChecks(player, data, frame, interested));
+        }
     }
 
 
-    @EventHandler
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        Player player = event.getPlayer();
+    /**
+     * Look up the player's data and refresh its per-tick attributes.
+     * @return null if the player isn't tracked or has bypass
+     */
+    private PlayerData prepare(Player player) {
+        PlayerData data = playerDataManager.get(player);
+        if (data == null || data.isBypassing()) {
+            return null;
+        }
 
-        if (player.hasPermission("anticheat.bypass")) {
-            return;
+        data.refreshAttributes(player, currentTick);
+        return data;
+    }
+
+
+    /**
+     * Run packet-fed movement checks. Called by MovementPacketListener on the
+     * player's network thread, so flags always go through the violation queue.
+     */
+    void runPacketMovementChecks(Player player, PlayerData data, MovementFrame frame) {
+        if (inputRecorder.isCapturing(data.getUuid())) {
+            inputRecorder.recordMove(data.getUuid(), frame, true);
         }
 
-        runChecks(player, event);
+        for (Check check : packetMovementChecks) {
+            if (!check.isEnabled()) {
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                CheckResult result = check.checkMovement(data, frame);
+                check.getStats().record(System.nanoTime() - start, result.isViolated());
+
+                if (result.isViolated()) {
+                    queueViolation(player, check, result);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Run PACKET checks. Called by PacketFrameListener on the player's network
+     * thread, so flags always go through the violation queue.
+     */
+    void runPacketChecks(Player player, PlayerData data, PacketFrame frame) {
+        if (inputRecorder.isCapturing(data.getUuid())) {
+            inputRecorder.recordPacket(data.getUuid(), frame);
+        }
+
+        for (Check check : frameChecks.getOrDefault(FrameType.PACKET, NO_CHECKS)) {
+            if (!check.isEnabled()) {
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                CheckResult result = check.checkPacket(data, frame);
+                check.getStats().record(System.nanoTime() - start, result.isViolated());
+
+                if (result.isViolated()) {
+                    queueViolation(player, check, result);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    private void runMovementChecks(Player player, PlayerData data, MovementFrame frame, Check[] interested) {
+        for (Check check : interested) {
+            if (!check.isEnabled()) {
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                CheckResult result = check.checkMovement(data, frame);
+                check.getStats().record(System.nanoTime() - start, result.isViolated());
+
+                if (result.isViolated()) {
+                    report(player, check, result);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    private void runCombatChecks(Player player, PlayerData data, CombatFrame frame, Check[] interested) {
+        for (Check check : interested) {
+            if (!check.isEnabled()) {
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                CheckResult result = check.checkCombat(data, frame);
+                check.getStats().record(System.nanoTime() - start, result.isViolated());
+
+                if (result.isViolated()) {
+                    report(player, check, result);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Record a result from check evaluation, on whichever thread that ran.
+     */
+    private void report(Player player, Check check, CheckResult result) {
+        if (executor == null) {
+            handleViolation(player, check, result);
+        } else {
+            queueViolation(player, check, result);
+        }
+    }
+
+
+    /**
+     * Hand a violation found on another thread to the main thread.
+     * Lock-free and safe to call from any thread; processed on the next tick.
+     */
+    public void queueViolation(Player player, Check check, CheckResult result) {
+        pendingViolations.offer(new PendingViolation(player, check, result));
+    }
+
+
+    private void tick() {
+        currentTick++;
+        drainViolations();
+        coalescer.flushExpired();
+
+        if (inputRecorder.isCapturingAnyone()) {
+            inputRecorder.recordTick(currentTick);
+        }
+
+        if (packetMovementChecks.length > 0) {
+            refreshAttributes();
+        }
+
+        if (frameChecks.containsKey(FrameType.COMBAT)) {
+            entityTracker.tick(currentTick);
+        }
+
+        if (tickingChecks.length > 0) {
+            runTickingChecks();
+        }
+
+        if (executor != null && currentTick % DROP_REPORT_TICKS == 0) {
+            executor.reportDropped();
+        }
     }
 
 
-    private void runChecks(Player player, Event event) {
-        for (Check check : checks) {
+    /**
+     * Packet-fed checks never pass through an event handler, so their cached
+     * sprint/potion state is refreshed here instead.
+     */
+    private void refreshAttributes() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            PlayerData data = playerDataManager.get(player);
+            if (data != null) {
+                data.refreshAttributes(player, currentTick);
+            }
+        }
+    }
+
+
+    private void runTickingChecks() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            PlayerData data = playerDataManager.get(player);
+            if (data == null || data.isBypassing()) {
+                continue;
+            }
+
+            // Queued behind the player's frames so the tick sees everything before it
+            if (executor == null) {
+                tickChecks(player, data);
+            } else {
+                executor.execute(data.getUuid(), () -> tickChecks(player, data));
+            }
+        }
+    }
+
+
+    private void tickChecks(Player player, PlayerData data) {
+        for (Check check : tickingChecks) {
             if (!check.isEnabled()) {
                 continue;
             }
 
             try {
-                CheckResult result = check.check(player, event);
+                long start = System.nanoTime();
+                CheckResult result = check.tick(data);
+                check.getStats().record(System.nanoTime() - start, result.isViolated());
 
                 if (result.isViolated()) {
-                    handleViolation(player, check, result);
+                    report(player, check, result);
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -110,12 +545,35 @@ public class CheckManager implements Listener {
     }
 
 
+    private void drainViolations() {
+        PendingViolation pending;
+        while ((pending = pendingViolations.poll()) != null) {
+            if (!pending.player.isOnline()) {
+                continue;
+            }
+
+            handleViolation(pending.player, pending.check, pending.result);
+        }
+    }
+
+
     private void handleViolation(Player player, Check check, CheckResult result) {
-        boolean shouldLog = violationManager.recordViolation(player, check, result);
+        int totalViolations = violationManager.recordViolation(player, check, result);
+        int threshold = check.getViolationThreshold();
+
+        PlayerData data = playerDataManager.get(player);
+        PlayerProfile profile = data != null ? data.getProfile() : null;
+        if (profile != null) {
+            profile.recordFlag(check.getName(), System.currentTimeMillis());
+
+            RepeatOffenders policy = repeatOffenders;
+            if (policy.thresholdReduction() > 0 && profile.getFlags(check.getName()) >= policy.flags()) {
+                threshold = Math.max(1, threshold - policy.thresholdReduction());
+            }
+        }
 
-        if (shouldLog) {
-            int totalViolations = violationManager.getViolationCount(player.getUniqueId(), check.getName());
-            logger.logViolation(player, check, result, totalViolations);
+        if (totalViolations >= threshold) {
+            coalescer.log(player, check, result, totalViolations);
         }
     }
 }
\ No newline at end of file
@@ -1,30 +1,60 @@
 package com.roach.antieesa.checks;
 
+/**
+ * Outcome of a check. Passing results are a shared singleton and failure
+ * reasons are only formatted when something reads them (i.e. a log entry is
+ * actually written), so the quiet path allocates nothing.
+ */
 public class CheckResult {
+    private static final CheckResult PASS = new CheckResult(false, "", 0);
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final boolean violated;
-    private final String reason;
+    private final String format;
+    private final Object[] args;
     private final int violationLevel; // 1-5: 1 = sus, 5 = blatant
 
+    // Rendered from format/args on first read. Racing renders produce equal strings, so no locking
+    private String reason;
+
     public CheckResult(boolean violated, String reason, int violationLevel) {
-        this.violated = violated;
+        this(violated, violationLevel, reason, NO_ARGS);
         this.reason = reason;
+    }
+
+    private CheckResult(boolean violated, int violationLevel, String format, Object[] args) {
+        this.violated = violated;
+        this.format = format;
+        this.args = args;
         this.violationLevel = Math.min(5, Math.max(1, violationLevel));
     }
 
 
     public static CheckResult pass() {
-        return new CheckResult(false, "", 0);
+        return PASS;
     }
 
     public static CheckResult fail(String reason, int violationLevel) {
         return new CheckResult(true, reason, violationLevel);
     }
 
+    /**
+     * Fail with a reason that is only formatted (String.format) when read.
+     */
+    public static CheckResult fail(int violationLevel, String format, Object... args) {
+        return new CheckResult(true, violationLevel, format, args);
+    }
+
     public boolean isViolated() {
         return violated;
     }
     public String getReason() {
-        return reason;
+        String rendered = reason;
+        if (rendered == null) {
+            rendered = String.format(format, args);
+            reason = rendered;
+        }
+        return rendered;
     }
     public int getViolationLevel() {
         return violationLevel;
@@ -32,6 +62,6 @@ public class CheckResult {
 
     @Override
     public String toString() {
-        return violated ? String.format("[Level %d] %s", violationLevel, reason) : "PASS";
+        return violated ? String.format("[Level %d] %s", violationLevel, getReason()) : "PASS";
     }
 }
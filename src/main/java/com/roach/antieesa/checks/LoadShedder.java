@@ -0,0 +1,111 @@
+package com.roach.antieesa.checks;
+
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.violations.ViolationManager;
+
+import java.util.logging.Logger;
+
+/**
+ * Degrades move-check coverage while the server is over its tick budget.
+ *
+ * Tick durations feed an exponentially weighted moving average. Above 90%
+ * of the budget, move events of players with no current violations are
+ * sampled every 2nd event, and above the budget every 4th. Players
+ * ViolationManager has counts for, and all combat checks, keep full
+ * coverage. Levels step back down with some hysteresis once MSPT recovers.
+ * Main thread only.
+ */
+public class LoadShedder {
+    // Weight of the newest tick in the average, ~1s of ticks dominates
+    private static final double EWMA_ALPHA = 0.1;
+
+    // Fractions of the budget at which each level is entered and left again
+    private static final double SAMPLE_HALF_ENTER = 0.9;
+    private static final double SAMPLE_QUARTER_ENTER = 1.0;
+    private static final double RECOVER_MARGIN = 0.1;
+
+    public enum Level {
+        NORMAL(1),
+        SAMPLE_HALF(2),
+        SAMPLE_QUARTER(4);
+
+        // Run one in this many move events for clean players
+        private final int sampleInterval;
+
+        Level(int sampleInterval) {
+            this.sampleInterval = sampleInterval;
+        }
+    }
+
+    private final ViolationManager violationManager;
+    private final Logger logger;
+
+    private volatile boolean enabled = true;
+    private volatile double budgetMs = 50.0;
+
+    private double averageMs;
+    private Level level = Level.NORMAL;
+
+    public LoadShedder(ViolationManager violationManager, Logger logger) {
+        this.violationManager = violationManager;
+        this.logger = logger;
+    }
+
+    /**
+     * @param budgetMs tick duration the server should stay under, 50 for 20 TPS
+     */
+    public void configure(boolean enabled, double budgetMs) {
+        this.enabled = enabled;
+        this.budgetMs = budgetMs;
+    }
+
+    /**
+     * Feed one finished tick's duration and move between levels.
+     */
+    public void onTickEnd(double durationMs) {
+        averageMs += EWMA_ALPHA * (durationMs - averageMs);
+
+        Level next = enabled ? nextLevel(averageMs / budgetMs) : Level.NORMAL;
+        if (next != level) {
+            logger.info(String.format("Load shedding %s -> %s (MSPT %.1f)", level, next, averageMs));
+            level = next;
+        }
+    }
+
+    private Level nextLevel(double load) {
+        switch (level) {
+            case NORMAL:
+                if (load >= SAMPLE_QUARTER_ENTER) return Level.SAMPLE_QUARTER;
+                if (load >= SAMPLE_HALF_ENTER) return Level.SAMPLE_HALF;
+                return Level.NORMAL;
+            case SAMPLE_HALF:
+                if (load >= SAMPLE_QUARTER_ENTER) return Level.SAMPLE_QUARTER;
+                if (load < SAMPLE_HALF_ENTER - RECOVER_MARGIN) return Level.NORMAL;
+                return Level.SAMPLE_HALF;
+            default:
+                if (load < SAMPLE_QUARTER_ENTER - RECOVER_MARGIN) return Level.SAMPLE_HALF;
+                return Level.SAMPLE_QUARTER;
+        }
+    }
+
+    /**
+     * Whether this move event should be checked at the current level.
+     */
+    public boolean shouldCheckMove(PlayerData data) {
+        if (level == Level.NORMAL || violationManager.hasViolations(data.getUuid())) {
+            return true;
+        }
+        return data.nextMoveSample() % level.sampleInterval == 0;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the smoothed tick duration in ms
+     */
+    public double getAverageMspt() {
+        return averageMs;
+    }
+}
@@ -0,0 +1,93 @@
+package com.roach.antieesa.checks;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.data.PacketPosition;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.data.PlayerDataManager;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Feeds packet-sourced movement checks from the client's own position
+ * packets, on the network thread. Every packet is seen (no server-side
+ * coalescing or move threshold) and nothing runs on the main thread.
+ *
+ * Server teleports are tracked so the jump to the new position isn't
+ * treated as a move.
+ */
+class MovementPacketListener extends PacketAdapter {
+    private final CheckManager checkManager;
+    private final PlayerDataManager playerDataManager;
+
+    MovementPacketListener(Plugin plugin, CheckManager checkManager, PlayerDataManager playerDataManager) {
+        super(plugin, ListenerPriority.MONITOR,
+                PacketType.Play.Client.POSITION,
+                PacketType.Play.Client.POSITION_LOOK,
+                PacketType.Play.Client.LOOK,
+                PacketType.Play.Client.TELEPORT_ACCEPT,
+                PacketType.Play.Server.POSITION);
+        this.checkManager = checkManager;
+        this.playerDataManager = playerDataManager;
+    }
+
+    @Override
+    public void onPacketSending(PacketEvent event) {
+        if (event.isPlayerTemporary()) {
+            return;
+        }
+
+        PlayerData data = playerDataManager.get(event.getPlayer());
+        if (data != null) {
+            data.getPacketPosition().teleportSent();
+        }
+    }
+
+    @Override
+    public void onPacketReceiving(PacketEvent event) {
+        if (event.isPlayerTemporary()) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        PlayerData data = playerDataManager.get(player);
+
+        // Not fully joined yet
+        if (data == null) {
+            return;
+        }
+
+        PacketPosition position = data.getPacketPosition();
+        PacketType type = event.getPacketType();
+        PacketContainer packet = event.getPacket();
+
+        if (type == PacketType.Play.Client.TELEPORT_ACCEPT) {
+            position.teleportAccepted();
+            return;
+        }
+
+        if (type == PacketType.Play.Client.LOOK) {
+            position.rotate(packet.getFloat().read(0), packet.getFloat().read(1));
+            return;
+        }
+
+        boolean rotated = type == PacketType.Play.Client.POSITION_LOOK;
+        float yaw = rotated ? packet.getFloat().read(0) : position.getLastYaw();
+        float pitch = rotated ? packet.getFloat().read(1) : position.getLastPitch();
+
+        // Position is tracked even while bypassing so losing bypass doesn't produce a jump
+        MovementFrame frame = position.move(data,
+                packet.getDoubles().read(0), packet.getDoubles().read(1), packet.getDoubles().read(2),
+                yaw, pitch, System.currentTimeMillis());
+
+        if (frame == null || data.isBypassing()) {
+            return;
+        }
+
+        checkManager.runPacketMovementChecks(player, data, frame);
+    }
+}
@@ -0,0 +1,51 @@
+package com.roach.antieesa.checks;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketEvent;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.data.PlayerDataManager;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Builds PacketFrames from flying and use-entity packets and feeds them to
+ * PACKET checks, on the network thread.
+ */
+class PacketFrameListener extends PacketAdapter {
+    private final CheckManager checkManager;
+    private final PlayerDataManager playerDataManager;
+
+    PacketFrameListener(Plugin plugin, CheckManager checkManager, PlayerDataManager playerDataManager) {
+        super(plugin, ListenerPriority.MONITOR,
+                PacketType.Play.Client.POSITION,
+                PacketType.Play.Client.LOOK,
+                PacketType.Play.Client.POSITION_LOOK,
+                PacketType.Play.Client.FLYING,
+                PacketType.Play.Client.USE_ENTITY);
+        this.checkManager = checkManager;
+        this.playerDataManager = playerDataManager;
+    }
+
+    @Override
+    public void onPacketReceiving(PacketEvent event) {
+        if (event.isPlayerTemporary()) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        PlayerData data = playerDataManager.get(player);
+
+        // Not fully joined yet, or has bypass
+        if (data == null || data.isBypassing()) {
+            return;
+        }
+
+        PacketFrame.Kind kind = event.getPacketType() == PacketType.Play.Client.USE_ENTITY
+                ? PacketFrame.Kind.ATTACK
+                : PacketFrame.Kind.FLYING;
+        checkManager.runPacketChecks(player, data, new PacketFrame(System.currentTimeMillis(), kind));
+    }
+}
@@ -1,106 +1,99 @@
 package com.roach.antieesa.checks.combat;
 
-import com.comphenix.protocol.PacketType;
-import com.comphenix.protocol.ProtocolLibrary;
-import com.comphenix.protocol.events.PacketAdapter;
-import com.comphenix.protocol.events.PacketEvent;
-import com.roach.antieesa.AntiEesa;
 import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Detects Killaura... I'm watching you eesa
+ *
+ * Fed packet frames on the network thread. Per-player state is atomic so it
+ * needs no locks, and CheckManager hands flags to the main thread through
+ * its violation queue.
  */
 public class KillAuraCheck extends Check {
-    // Track last flying packet time per player
-    private final Map<UUID, Long> lastFlyingPacket = new HashMap<>();
+    private static final Set<FrameType> FRAME_TYPES = Set.of(FrameType.PACKET);
 
-    // Track violations per player (for threshold before flagging)
-    private final Map<UUID, Integer> violations = new HashMap<>();
+    private static class State {
+        // Last flying packet time
+        final AtomicLong lastFlyingPacket = new AtomicLong();
+
+        // Violations for threshold before flagging
+        final AtomicInteger violations = new AtomicInteger();
+    }
+
+    // Attacks sooner than this after a flying packet are suspicious (ms)
+    private static final long DEFAULT_MIN_ATTACK_DELAY = 5;
+
+    // Suspicious attacks needed before flagging
+    private static final int DEFAULT_MAX_VIOLATIONS = 10;
+
+    private record Settings(long minAttackDelay, int maxViolations) {
+    }
+
+    private volatile Settings settings = new Settings(DEFAULT_MIN_ATTACK_DELAY, DEFAULT_MAX_VIOLATIONS);
 
     public KillAuraCheck() {
         super("KillAura", "Detects killaura by packet timing", 5);
+    }
 
-        // Register packet listener
-        ProtocolLibrary.getProtocolManager().addPacketListener(new PacketAdapter(
-                AntiEesa.getInstance(),
-                PacketType.Play.Client.POSITION,
-                PacketType.Play.Client.LOOK,
-                PacketType.Play.Client.POSITION_LOOK,
-                PacketType.Play.Client.FLYING,
-                PacketType.Play.Client.USE_ENTITY) {
-
-            @Override
-            public void onPacketReceiving(PacketEvent event) {
-                Player player = event.getPlayer();
-                UUID uuid = player.getUniqueId();
-
-                // Skip if player has bypass
-                if (player.hasPermission("anticheat.bypass")) {
-                    return;
-                }
-
-                // Check if this is an attack packet
-                if (event.getPacketType().equals(PacketType.Play.Client.USE_ENTITY)) {
-                    long timeSinceFlying = System.currentTimeMillis() -
-                            lastFlyingPacket.getOrDefault(uuid, 0L);
-
-
-                    if (timeSinceFlying < 5) {
-                        int currentViolations = violations.getOrDefault(uuid, 0) + 1;
-                        violations.put(uuid, currentViolations);
-
-                        // If violations exceed threshold, flag it
-                        if (currentViolations > 10) {
-                            handlePacketViolation(player, timeSinceFlying);
-                            violations.put(uuid, 0); // Reset after flagging
-                        }
-                    } else {
-                        violations.put(uuid, Math.max(0, violations.getOrDefault(uuid, 0) - 1));
-                    }
-                } else {
-                    // Update last flying packet time for movement packets
-                    lastFlyingPacket.put(uuid, System.currentTimeMillis());
-                }
-            }
-        });
+    @Override
+    public Set<FrameType> getFrameTypes() {
+        return FRAME_TYPES;
     }
 
     @Override
-    public CheckResult check(Player player, Event event) {
-        return CheckResult.pass();
+    protected void loadSettings(ConfigurationSection config) {
+        settings = new Settings(
+                config.getLong("min-attack-delay-ms", DEFAULT_MIN_ATTACK_DELAY),
+                config.getInt("max-violations", DEFAULT_MAX_VIOLATIONS));
     }
 
+    @Override
+    public Object createPlayerState() {
+        return new State();
+    }
 
-    private void handlePacketViolation(Player player, long timeDiff) {
-        // Create a violation result
-        CheckResult result = CheckResult.fail(
-                String.format("Attack packet sent %dms after flying packet (expected >5ms)", timeDiff),
-                4  // High severity - packet manipulation is pretty blatant
-        );
 
-        // Manually trigger violation handling through the managers
-        boolean shouldLog = AntiEesa.getInstance().getViolationManager()
-                .recordViolation(player, this, result);
+    /**
+     * Packet timing logic. Called on the network thread, so it only touches
+     * the atomic per-player state.
+     */
+    @Override
+    public CheckResult checkPacket(PlayerData data, PacketFrame frame) {
+        State state = data.getState(this);
+        long now = frame.timestamp();
+
+        // Update last flying packet time for movement packets
+        if (!frame.isAttack()) {
+            state.lastFlyingPacket.set(now);
+            return CheckResult.pass();
+        }
 
-        if (shouldLog) {
-            int totalViolations = AntiEesa.getInstance().getViolationManager()
-                    .getViolationCount(player.getUniqueId(), getName());
+        long timeSinceFlying = now - state.lastFlyingPacket.get();
+        Settings current = settings;
 
-            AntiEesa.getInstance().getViolationLogger()
-                    .logViolation(player, this, result, totalViolations);
+        if (timeSinceFlying >= current.minAttackDelay()) {
+            state.violations.updateAndGet(v -> Math.max(0, v - 1));
+            return CheckResult.pass();
         }
-    }
 
+        int currentViolations = state.violations.incrementAndGet();
+
+        // If violations exceed threshold, flag it (reset after flagging, only one thread wins the reset)
+        if (currentViolations > current.maxViolations() && state.violations.compareAndSet(currentViolations, 0)) {
+            return CheckResult.fail(4,  // High severity - packet manipulation is pretty blatant
+                    "Attack packet sent %dms after flying packet (expected >%dms)",
+                    timeSinceFlying, current.minAttackDelay());
+        }
 
-    public void cleanup(UUID uuid) {
-        lastFlyingPacket.remove(uuid);
-        violations.remove(uuid);
+        return CheckResult.pass();
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,12 @@ package com.roach.antieesa.checks.combat;
 
 import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.LivingEntity;
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
 
-import java.util.*;
+import java.util.Set;
 
 /**
  * Detects killaura by tracking multiple entities hit in rapid succession.
@@ -16,22 +15,108 @@ import java.util.*;
  * Killaura often switches between multiple targets rapidly.
  */
 public class MultiTargetCheck extends Check {
-    // Track recent hit targets per player
-    private final Map<UUID, List<HitRecord>> recentHits = new HashMap<>();
-    
+    private static final Set<FrameType> FRAME_TYPES = Set.of(FrameType.COMBAT);
+
     // Time window to check for multi-target (milliseconds)
-    private static final long TIME_WINDOW = 500; // 0.5 seconds
+    private static final long DEFAULT_TIME_WINDOW = 500; // 0.5 seconds
     
     // Max unique targets in time window before flagging
-    private static final int MAX_UNIQUE_TARGETS = 2;
+    private static final int DEFAULT_MAX_UNIQUE_TARGETS = 2;
+    
+    private record Settings(long timeWindow, int maxUniqueTargets) {
+    }
+    
+    private volatile Settings settings = new Settings(DEFAULT_TIME_WINDOW, DEFAULT_MAX_UNIQUE_TARGETS);
+    
+    // Hits remembered per player. 20 CPS with sweeps stays well under this in one window
+    private static final int HISTORY_SIZE = 32;
     
-    private static class HitRecord {
-        final UUID targetId;
-        final long timestamp;
+    // Twice the most distinct targets the history can hold, a power of two
+    private static final int TABLE_SIZE = 64;
+    
+    /**
+     * Ring buffer of recent hits as (target entity id, timestamp) pairs,
+     * oldest at head, plus an open-addressed count of hits per target in the
+     * buffer, so add/evict keep uniqueTargets up to date in O(1).
+     */
+    private static class State {
+        final int[] targets = new int[HISTORY_SIZE];
+        final long[] timestamps = new long[HISTORY_SIZE];
+        int head;
+        int size;
+        int uniqueTargets;
+        
+        // Target id -> hits in the buffer, linear probing, 0 hits marks a free slot
+        final int[] countedTargets = new int[TABLE_SIZE];
+        final int[] counts = new int[TABLE_SIZE];
+        
+        void add(int target, long timestamp) {
+            if (size == HISTORY_SIZE) {
+                evictOldest();
+            }
+            int slot = slotOf(target);
+            if (counts[slot]++ == 0) {
+                countedTargets[slot] = target;
+                uniqueTargets++;
+            }
+            int tail = (head + size) % HISTORY_SIZE;
+            targets[tail] = target;
+            timestamps[tail] = timestamp;
+            size++;
+        }
+        
+        void evictOlderThan(long cutoff) {
+            while (size > 0 && timestamps[head] < cutoff) {
+                evictOldest();
+            }
+        }
         
-        HitRecord(UUID targetId, long timestamp) {
-            this.targetId = targetId;
-            this.timestamp = timestamp;
+        private void evictOldest() {
+            int slot = slotOf(targets[head]);
+            head = (head + 1) % HISTORY_SIZE;
+            size--;
+            if (--counts[slot] == 0) {
+                uniqueTargets--;
+                closeGap(slot);
+            }
+        }
+        
+        /**
+         * @return the target's slot, or the free slot it would take
+         */
+        private int slotOf(int target) {
+            int slot = home(target);
+            while (counts[slot] != 0 && countedTargets[slot] != target) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            return slot;
+        }
+        
+        /**
+         * Shift later entries of the probe run back into a freed slot, so
+         * lookups never stop early at it.
+         */
+        private void closeGap(int gap) {
+            int slot = gap;
+            while (true) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+                if (counts[slot] == 0) {
+                    return;
+                }
+                // Movable if the gap lies between its home slot and where it sits
+                int home = home(countedTargets[slot]);
+                if (((slot - home) & (TABLE_SIZE - 1)) >= ((slot - gap) & (TABLE_SIZE - 1))) {
+                    countedTargets[gap] = countedTargets[slot];
+                    counts[gap] = counts[slot];
+                    counts[slot] = 0;
+                    gap = slot;
+                }
+            }
+        }
+        
+        private static int home(int target) {
+            int hash = target * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
         }
     }
     
@@ -40,53 +125,48 @@ public class MultiTargetCheck extends Check {
     }
 
     @Override
-    public CheckResult check(Player player, Event event) {
-        if (!(event instanceof EntityDamageByEntityEvent)) {
-            return CheckResult.pass();
-        }
-        
-        EntityDamageByEntityEvent damageEvent = (EntityDamageByEntityEvent) event;
-        
-        if (!damageEvent.getDamager().equals(player)) {
-            return CheckResult.pass();
-        }
-        
-        Entity target = damageEvent.getEntity();
-        if (!(target instanceof LivingEntity)) {
+    public Set<FrameType> getFrameTypes() {
+        return FRAME_TYPES;
+    }
+
+    @Override
+    protected void loadSettings(ConfigurationSection config) {
+        settings = new Settings(
+                config.getLong("time-window-ms", DEFAULT_TIME_WINDOW),
+                config.getInt("max-targets", DEFAULT_MAX_UNIQUE_TARGETS));
+    }
+
+    @Override
+    public Object createPlayerState() {
+        return new State();
+    }
+
+    @Override
+    public CheckResult checkCombat(PlayerData data, CombatFrame frame) {
+        if (!frame.targetLiving()) {
             return CheckResult.pass();
         }
         
-        UUID playerUuid = player.getUniqueId();
-        UUID targetUuid = target.getUniqueId();
-        long currentTime = System.currentTimeMillis();
-        
-        // Get or create hit history for this player
-        List<HitRecord> hits = recentHits.computeIfAbsent(playerUuid, k -> new ArrayList<>());
-        
-        // Add current hit
-        hits.add(new HitRecord(targetUuid, currentTime));
+        long currentTime = frame.timestamp();
+        Settings current = settings;
         
-        // Remove hits older than time window
-        hits.removeIf(hit -> currentTime - hit.timestamp > TIME_WINDOW);
+        // Hit history for this player
+        State state = data.getState(this);
         
-        // Count unique targets in time window
-        Set<UUID> uniqueTargets = new HashSet<>();
-        for (HitRecord hit : hits) {
-            uniqueTargets.add(hit.targetId);
-        }
+        // Remove hits older than time window, then add current hit
+        state.evictOlderThan(currentTime - current.timeWindow());
+        state.add(frame.targetId(), currentTime);
         
 
         // Check if hitting too many different targets
-        if (uniqueTargets.size() > MAX_UNIQUE_TARGETS) {
-            int violationLevel = calculateViolationLevel(uniqueTargets.size(), hits.size());
+        if (state.uniqueTargets > current.maxUniqueTargets()) {
+            int violationLevel = calculateViolationLevel(state.uniqueTargets, state.size);
             
-            return CheckResult.fail(
-                String.format("Hit %d different targets in %.1fs (%d total hits)",
-                    uniqueTargets.size(),
-                    TIME_WINDOW / 1000.0,
-                    hits.size()),
-                violationLevel
-            );
+            return CheckResult.fail(violationLevel,
+                "Hit %d different targets in %.1fs (%d total hits)",
+                state.uniqueTargets,
+                current.timeWindow() / 1000.0,
+                state.size);
         }
         
         return CheckResult.pass();
@@ -106,11 +186,4 @@ public class MultiTargetCheck extends Check {
         
         return 2;
     }
-    
-    /**
-     * Clean up player data
-     */
-    public void cleanup(UUID uuid) {
-        recentHits.remove(uuid);
-    }
 }
@@ -2,79 +2,85 @@ package com.roach.antieesa.checks.combat;
 
 import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
-import org.bukkit.Location;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.util.Vector;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * Detects extended reach by measuring actual hit distance.
  * Vanilla max reach is 3.0 blocks, we add small buffer for lag.
  */
 public class ReachCheck extends Check {
-    // Track violations per player to avoid false positives from lag spikes
-    private final Map<UUID, Integer> reachViolations = new HashMap<>();
-    
+    private static final Set<FrameType> FRAME_TYPES = Set.of(FrameType.COMBAT);
+
     // Maximum legitimate reach distance (blocks)
-    private static final double MAX_REACH = 3.0;
+    private static final double DEFAULT_MAX_REACH = 3.0;
     
     // Buffer for latency/positioning quirks
-    private static final double REACH_BUFFER = 0.15; // Reduced from 0.3
+    private static final double DEFAULT_REACH_BUFFER = 0.15; // Reduced from 0.3
     
-    // Effective max with buffer
-    private static final double MAX_REACH_WITH_BUFFER = MAX_REACH + REACH_BUFFER;
+    private record Settings(double maxReach, double reachBuffer) {
+        // Effective max with buffer
+        double maxReachWithBuffer() {
+            return maxReach + reachBuffer;
+        }
+    }
+    
+    private volatile Settings settings = new Settings(DEFAULT_MAX_REACH, DEFAULT_REACH_BUFFER);
+    
+    private static class State {
+        // Track violations to avoid false positives from lag spikes
+        int reachViolations;
+    }
     
     public ReachCheck() {
         super("Reach", "Detects extended reach in combat", 4);
     }
 
     @Override
-    public CheckResult check(Player player, Event event) {
-        if (!(event instanceof EntityDamageByEntityEvent)) {
-            return CheckResult.pass();
-        }
-        
-        EntityDamageByEntityEvent damageEvent = (EntityDamageByEntityEvent) event;
-        
-        if (!damageEvent.getDamager().equals(player)) {
-            return CheckResult.pass();
-        }
-        
-        Entity target = damageEvent.getEntity();
-        UUID uuid = player.getUniqueId();
-        
-        // Calculate distance from player's eyes to target's center
-        Location playerEye = player.getEyeLocation();
-        Location targetCenter = target.getLocation().add(0, target.getHeight() / 2, 0);
+    public Set<FrameType> getFrameTypes() {
+        return FRAME_TYPES;
+    }
+
+    @Override
+    protected void loadSettings(ConfigurationSection config) {
+        settings = new Settings(
+                config.getDouble("max-reach", DEFAULT_MAX_REACH),
+                config.getDouble("buffer", DEFAULT_REACH_BUFFER));
+    }
+
+    @Override
+    public Object createPlayerState() {
+        return new State();
+    }
+
+    @Override
+    public CheckResult checkCombat(PlayerData data, CombatFrame frame) {
+        State state = data.getState(this);
+        double maxReach = settings.maxReachWithBuffer();
         
         // Get the actual reach distance
-        double distance = calculateReach(playerEye, targetCenter, target);
+        double distance = calculateReach(frame);
         
         // Check if exceeds max reach
-        if (distance > MAX_REACH_WITH_BUFFER) {
-            int violations = reachViolations.getOrDefault(uuid, 0) + 1;
-            reachViolations.put(uuid, violations);
+        if (distance > maxReach) {
+            int violations = ++state.reachViolations;
             
             // Need multiple violations to flag (avoid false positives from lag)
             if (violations >= 2) { // Reduced from 3
-                reachViolations.put(uuid, 0); // Reset
+                state.reachViolations = 0; // Reset
                 
-                int violationLevel = calculateViolationLevel(distance);
+                int violationLevel = calculateViolationLevel(distance - maxReach);
                 
-                return CheckResult.fail(
-                    String.format("Hit from %.2f blocks away (max: %.2f)", distance, MAX_REACH_WITH_BUFFER),
-                    violationLevel
-                );
+                return CheckResult.fail(violationLevel,
+                    "Hit from %.2f blocks away (max: %.2f)", distance, maxReach);
             }
         } else {
             // Legitimate hit, reduce violation count
-            reachViolations.put(uuid, Math.max(0, reachViolations.getOrDefault(uuid, 0) - 1));
+            state.reachViolations = Math.max(0, state.reachViolations - 1);
         }
         
         return CheckResult.pass();
@@ -83,14 +89,13 @@ public class ReachCheck extends Check {
     /**
      * Calculate actual reach distance accounting for entity hitbox
      */
-    private double calculateReach(Location playerEye, Location targetCenter, Entity target) {
-        // Get vector from player to target
-        Vector toTarget = targetCenter.toVector().subtract(playerEye.toVector());
-        double distance = toTarget.length();
+    private double calculateReach(CombatFrame frame) {
+        // Distance from player's eyes to target's center
+        double distance = frame.distanceToTargetCenter();
         
         // Subtract target's hitbox radius (approximate)
         // Most mobs have ~0.3-0.6 block radius
-        double hitboxRadius = target.getWidth() / 2.0;
+        double hitboxRadius = frame.targetWidth() / 2.0;
         
         // Actual reach is distance minus hitbox
         return Math.max(0, distance - hitboxRadius);
@@ -99,20 +104,11 @@ public class ReachCheck extends Check {
     /**
      * Calculate violation severity based on how far over the limit
      */
-    private int calculateViolationLevel(double distance) {
-        double excess = distance - MAX_REACH_WITH_BUFFER;
-        
+    private int calculateViolationLevel(double excess) {
         if (excess > 3.0) return 5; // 6+ block reach = blatant
         if (excess > 2.0) return 4; // 5+ block reach = very suspicious  
         if (excess > 1.0) return 3; // 4+ block reach = suspicious
         if (excess > 0.5) return 2; // 3.8+ block reach = slightly sus
         return 1;                    // Just barely over
     }
-    
-    /**
-     * Clean up player data
-     */
-    public void cleanup(UUID uuid) {
-        reachViolations.remove(uuid);
-    }
 }
@@ -2,17 +2,12 @@ package com.roach.antieesa.checks.combat;
 
 import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
-import org.bukkit.Location;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.LivingEntity;
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.util.Vector;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Set;
 
 /**
  * Detects killaura by analyzing head rotation patterns.
@@ -22,103 +17,117 @@ import java.util.UUID;
  * - Perfect tracking that's too consistent
  */
 public class RotationAuraCheck extends Check {
-    // Store last yaw/pitch per player
-    private final Map<UUID, Float> lastYaw = new HashMap<>();
-    private final Map<UUID, Float> lastPitch = new HashMap<>();
-    private final Map<UUID, Long> lastAttackTime = new HashMap<>();
-
-    // Track suspicious rotation counts
-    private final Map<UUID, Integer> suspiciousRotations = new HashMap<>();
+    private static final Set<FrameType> FRAME_TYPES = Set.of(FrameType.COMBAT);
 
     // Maximum rotation per tick that's humanly possible (degrees)
-    private static final float MAX_ROTATION_PER_TICK = 50.0f;
+    private static final float DEFAULT_MAX_ROTATION_PER_TICK = 50.0f;
 
     // Maximum angle offset while hitting (degrees)
-    private static final float MAX_HIT_ANGLE = 45.0f;
+    private static final float DEFAULT_MAX_HIT_ANGLE = 45.0f;
+
+    // Rotation is only judged between attacks this close together (ms)
+    private static final long DEFAULT_ATTACK_WINDOW = 500;
+
+    private record Settings(float maxRotationPerTick, float maxHitAngle, long attackWindow) {
+    }
+
+    private volatile Settings settings =
+            new Settings(DEFAULT_MAX_ROTATION_PER_TICK, DEFAULT_MAX_HIT_ANGLE, DEFAULT_ATTACK_WINDOW);
+
+    private static class State {
+        // Rotation at the last attack, only valid once hasLast is set
+        boolean hasLast;
+        float lastYaw;
+        float lastPitch;
+        long lastAttackTime;
+
+        // Track suspicious rotation counts
+        int suspiciousRotations;
+    }
 
     public RotationAuraCheck() {
         super("KillAura-Rotation", "Detects killaura via impossible head rotations", 4);
     }
 
     @Override
-    public CheckResult check(Player player, Event event) {
-        if (!(event instanceof EntityDamageByEntityEvent)) {
-            return CheckResult.pass();
-        }
+    public Set<FrameType> getFrameTypes() {
+        return FRAME_TYPES;
+    }
 
-        EntityDamageByEntityEvent damageEvent = (EntityDamageByEntityEvent) event;
+    @Override
+    protected void loadSettings(ConfigurationSection config) {
+        settings = new Settings(
+                (float) config.getDouble("max-rotation-per-tick", DEFAULT_MAX_ROTATION_PER_TICK),
+                (float) config.getDouble("max-hit-angle", DEFAULT_MAX_HIT_ANGLE),
+                config.getLong("attack-window-ms", DEFAULT_ATTACK_WINDOW));
+    }
 
-        if (!(damageEvent.getDamager() instanceof Player)) {
-            return CheckResult.pass();
-        }
+    @Override
+    public Object createPlayerState() {
+        return new State();
+    }
 
-        if (!damageEvent.getDamager().equals(player)) {
-            return CheckResult.pass();
-        }
+    @Override
+    public void onWorldChange(PlayerData data) {
+        // The first attack in the new world has nothing to compare against
+        State state = data.getState(this);
+        state.hasLast = false;
+    }
 
-        Entity target = damageEvent.getEntity();
-        if (!(target instanceof LivingEntity)) {
+    @Override
+    public CheckResult checkCombat(PlayerData data, CombatFrame frame) {
+        if (!frame.targetLiving()) {
             return CheckResult.pass();
         }
 
-        UUID uuid = player.getUniqueId();
-        Location playerLoc = player.getEyeLocation();
-        Location targetLoc = target.getLocation().add(0, target.getHeight() / 2, 0);
+        State state = data.getState(this);
+        Settings current = settings;
 
         // Calculate angle to target
-        Vector toTarget = targetLoc.toVector().subtract(playerLoc.toVector()).normalize();
-        Vector playerDirection = playerLoc.getDirection();
-
-        double dotProduct = toTarget.dot(playerDirection);
-        double angleToTarget = Math.toDegrees(Math.acos(dotProduct));
+        double angleToTarget = frame.angleToTargetCenter();
 
         // Check 1: Are they hitting while looking away?
-        if (angleToTarget > MAX_HIT_ANGLE) {
-            int suspicious = suspiciousRotations.getOrDefault(uuid, 0) + 2; // +2 for blatant
-            suspiciousRotations.put(uuid, suspicious);
-
-            if (suspicious > 5) {
-                suspiciousRotations.put(uuid, 0);
-                return CheckResult.fail(
-                        String.format("Hit target while looking %.1f° away (max: %.1f°)", angleToTarget, MAX_HIT_ANGLE),
-                        4
-                );
+        if (angleToTarget > current.maxHitAngle()) {
+            state.suspiciousRotations += 2; // +2 for blatant
+
+            if (state.suspiciousRotations > 5) {
+                state.suspiciousRotations = 0;
+                return CheckResult.fail(4,
+                        "Hit target while looking %.1f° away (max: %.1f°)", angleToTarget, current.maxHitAngle());
             }
         }
 
         // Check 2: Impossible rotation speed
-        float currentYaw = playerLoc.getYaw();
-        float currentPitch = playerLoc.getPitch();
+        float currentYaw = frame.yaw();
+        float currentPitch = frame.pitch();
 
-        if (lastYaw.containsKey(uuid)) {
-            float yawDiff = Math.abs(normalizeYaw(currentYaw - lastYaw.get(uuid)));
-            float pitchDiff = Math.abs(currentPitch - lastPitch.get(uuid));
+        if (state.hasLast) {
+            float yawDiff = Math.abs(normalizeYaw(currentYaw - state.lastYaw));
+            float pitchDiff = Math.abs(currentPitch - state.lastPitch);
             float totalRotation = (float) Math.sqrt(yawDiff * yawDiff + pitchDiff * pitchDiff);
 
-            long timeSinceLastAttack = System.currentTimeMillis() - lastAttackTime.getOrDefault(uuid, 0L);
+            long timeSinceLastAttack = frame.timestamp() - state.lastAttackTime;
 
-            // Only check if attacking rapidly (within 500ms)
-            if (timeSinceLastAttack < 500 && totalRotation > MAX_ROTATION_PER_TICK) {
-                int suspicious = suspiciousRotations.getOrDefault(uuid, 0) + 1;
-                suspiciousRotations.put(uuid, suspicious);
+            // Only check if attacking rapidly (within the attack window)
+            if (timeSinceLastAttack < current.attackWindow() && totalRotation > current.maxRotationPerTick()) {
+                state.suspiciousRotations++;
 
-                if (suspicious > 5) {
-                    suspiciousRotations.put(uuid, 0);
-                    return CheckResult.fail(
-                            String.format("Impossible head rotation: %.1f°/tick (max: %.1f°)", totalRotation, MAX_ROTATION_PER_TICK),
-                            5
-                    );
+                if (state.suspiciousRotations > 5) {
+                    state.suspiciousRotations = 0;
+                    return CheckResult.fail(5,
+                            "Impossible head rotation: %.1f°/tick (max: %.1f°)", totalRotation, current.maxRotationPerTick());
                 }
-            } else if (totalRotation < MAX_ROTATION_PER_TICK) {
+            } else if (totalRotation < current.maxRotationPerTick()) {
                 // Reduce suspicion on legit movements
-                suspiciousRotations.put(uuid, Math.max(0, suspiciousRotations.getOrDefault(uuid, 0) - 1));
+                state.suspiciousRotations = Math.max(0, state.suspiciousRotations - 1);
             }
         }
 
         // Update tracking data
-        lastYaw.put(uuid, currentYaw);
-        lastPitch.put(uuid, currentPitch);
-        lastAttackTime.put(uuid, System.currentTimeMillis());
+        state.hasLast = true;
+        state.lastYaw = currentYaw;
+        state.lastPitch = currentPitch;
+        state.lastAttackTime = frame.timestamp();
 
         return CheckResult.pass();
     }
@@ -132,14 +141,4 @@ public class RotationAuraCheck extends Check {
         if (yaw < -180) yaw += 360;
         return yaw;
     }
-
-    /**
-     * Clean up player data
-     */
-    public void cleanup(UUID uuid) {
-        lastYaw.remove(uuid);
-        lastPitch.remove(uuid);
-        lastAttackTime.remove(uuid);
-        suspiciousRotations.remove(uuid);
-    }
 }
@@ -0,0 +1,51 @@
+package com.roach.antieesa.checks.frame;
+
+/**
+ * Immutable snapshot of one attack: the attacker's eye position and rotation
+ * and the target's position and hitbox, captured on the main thread.
+ *
+ * @param timestamp    capture time, ms since epoch
+ * @param targetLiving whether the target is a LivingEntity
+ * @param targetX      target feet position
+ */
+public record CombatFrame(long timestamp,
+                          double eyeX, double eyeY, double eyeZ,
+                          float yaw, float pitch,
+                          int targetId, boolean targetLiving,
+                          double targetX, double targetY, double targetZ,
+                          double targetWidth, double targetHeight) {
+
+    /**
+     * Distance from the attacker's eyes to the middle of the target's hitbox.
+     */
+    public double distanceToTargetCenter() {
+        double dx = targetX - eyeX;
+        double dy = targetY + targetHeight / 2 - eyeY;
+        double dz = targetZ - eyeZ;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Angle in degrees between where the attacker is looking and the middle of
+     * the target's hitbox. Same direction math as Location#getDirection.
+     */
+    public double angleToTargetCenter() {
+        double dx = targetX - eyeX;
+        double dy = targetY + targetHeight / 2 - eyeY;
+        double dz = targetZ - eyeZ;
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length == 0) {
+            return 0;
+        }
+
+        double yawRad = Math.toRadians(yaw);
+        double pitchRad = Math.toRadians(pitch);
+        double xz = Math.cos(pitchRad);
+        double lookX = -xz * Math.sin(yawRad);
+        double lookY = -Math.sin(pitchRad);
+        double lookZ = xz * Math.cos(yawRad);
+
+        double dot = (dx * lookX + dy * lookY + dz * lookZ) / length;
+        return Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, dot))));
+    }
+}
@@ -0,0 +1,69 @@
+package com.roach.antieesa.checks.frame;
+
+import com.roach.antieesa.data.EntityTracker;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+/**
+ * Builds frames from live Bukkit objects. Main thread only: it reads entity
+ * state and reuses its scratch Locations and movement frame between calls.
+ */
+public class FrameCapture {
+    private final Location attackerScratch = new Location(null, 0, 0, 0);
+    private final Location targetScratch = new Location(null, 0, 0, 0);
+    private final MovementFrame moveScratch = new MovementFrame();
+
+    // Null captures targets at their current position
+    private final EntityTracker entityTracker;
+
+    public FrameCapture() {
+        this(null);
+    }
+
+    /**
+     * @param entityTracker position history used to rewind combat targets by the attacker's ping
+     */
+    public FrameCapture(EntityTracker entityTracker) {
+        this.entityTracker = entityTracker;
+    }
+
+    /**
+     * @param data player data with attributes already refreshed for this tick
+     * @return the move, valid until the next call; copy() it to keep it
+     */
+    public MovementFrame movement(PlayerMoveEvent event, PlayerData data) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+
+        return moveScratch.set(System.currentTimeMillis(),
+                from.getX(), from.getY(), from.getZ(),
+                to.getX(), to.getY(), to.getZ(),
+                to.getYaw(), to.getPitch(),
+                data.isSprinting(), data.getSpeedAmplifier());
+    }
+
+    /**
+     * The target is placed where the attacker saw it when it has history,
+     * otherwise at its current position.
+     */
+    public CombatFrame combat(Player attacker, Entity target) {
+        Location eye = attacker.getLocation(attackerScratch);
+        double eyeY = eye.getY() + attacker.getEyeHeight();
+        Location targetLoc = target.getLocation(targetScratch);
+
+        if (entityTracker != null) {
+            entityTracker.rewind(target, attacker.getPing(), eye.getX(), eyeY, eye.getZ(), targetLoc);
+        }
+
+        return new CombatFrame(System.currentTimeMillis(),
+                eye.getX(), eyeY, eye.getZ(),
+                eye.getYaw(), eye.getPitch(),
+                target.getEntityId(), target instanceof LivingEntity,
+                targetLoc.getX(), targetLoc.getY(), targetLoc.getZ(),
+                target.getWidth(), target.getHeight());
+    }
+}
@@ -0,0 +1,13 @@
+package com.roach.antieesa.checks.frame;
+
+/**
+ * Kinds of input a check can consume, see Check.getFrameTypes().
+ */
+public enum FrameType {
+    // MovementFrame, from PlayerMoveEvent or, for usesMovementPackets() checks, position packets
+    MOVEMENT,
+    // CombatFrame, from EntityDamageByEntityEvent
+    COMBAT,
+    // PacketFrame, from flying and use-entity packets on the network thread
+    PACKET
+}
@@ -0,0 +1,133 @@
+package com.roach.antieesa.checks.frame;
+
+/**
+ * One move, captured so movement checks can run anywhere without touching
+ * Bukkit objects.
+ *
+ * The per-packet and per-event paths refill one frame instead of allocating
+ * a frame per move, so a frame handed to a check is only valid for that
+ * call. Anything that keeps a frame or passes it to another thread, like
+ * captures and async checks, takes a copy().
+ */
+public final class MovementFrame {
+    private long timestamp;
+    private double fromX;
+    private double fromY;
+    private double fromZ;
+    private double toX;
+    private double toY;
+    private double toZ;
+    private float yaw;
+    private float pitch;
+    private boolean sprinting;
+    private int speedAmplifier;
+
+    /**
+     * An empty frame, to be filled with set().
+     */
+    public MovementFrame() {
+    }
+
+    /**
+     * @param timestamp      capture time, ms since epoch
+     * @param sprinting      sprint state at capture (per-tick cached)
+     * @param speedAmplifier Speed effect amplifier at capture, -1 without the effect
+     */
+    public MovementFrame(long timestamp,
+                         double fromX, double fromY, double fromZ,
+                         double toX, double toY, double toZ,
+                         float yaw, float pitch,
+                         boolean sprinting, int speedAmplifier) {
+        set(timestamp, fromX, fromY, fromZ, toX, toY, toZ, yaw, pitch, sprinting, speedAmplifier);
+    }
+
+    /**
+     * Refill this frame for the next move.
+     * @return this
+     */
+    public MovementFrame set(long timestamp,
+                             double fromX, double fromY, double fromZ,
+                             double toX, double toY, double toZ,
+                             float yaw, float pitch,
+                             boolean sprinting, int speedAmplifier) {
+        this.timestamp = timestamp;
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.fromZ = fromZ;
+        this.toX = toX;
+        this.toY = toY;
+        this.toZ = toZ;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.sprinting = sprinting;
+        this.speedAmplifier = speedAmplifier;
+        return this;
+    }
+
+    /**
+     * @return a frame that stays as this one is now
+     */
+    public MovementFrame copy() {
+        return new MovementFrame(timestamp, fromX, fromY, fromZ, toX, toY, toZ, yaw, pitch,
+                sprinting, speedAmplifier);
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public double fromX() {
+        return fromX;
+    }
+
+    public double fromY() {
+        return fromY;
+    }
+
+    public double fromZ() {
+        return fromZ;
+    }
+
+    public double toX() {
+        return toX;
+    }
+
+    public double toY() {
+        return toY;
+    }
+
+    public double toZ() {
+        return toZ;
+    }
+
+    public float yaw() {
+        return yaw;
+    }
+
+    public float pitch() {
+        return pitch;
+    }
+
+    public boolean sprinting() {
+        return sprinting;
+    }
+
+    public int speedAmplifier() {
+        return speedAmplifier;
+    }
+
+    public double deltaX() {
+        return toX - fromX;
+    }
+
+    public double deltaZ() {
+        return toZ - fromZ;
+    }
+
+    /**
+     * @return false for moves that only changed height or rotation
+     */
+    public boolean isHorizontalMove() {
+        return fromX != toX || fromZ != toZ;
+    }
+}
@@ -0,0 +1,19 @@
+package com.roach.antieesa.checks.frame;
+
+/**
+ * One client packet that matters for timing checks, as received on the
+ * network thread. Only the kind and arrival time are kept.
+ */
+public record PacketFrame(long timestamp, Kind kind) {
+
+    public enum Kind {
+        // Position, rotation or on-ground update
+        FLYING,
+        // Use-entity (attack or interact)
+        ATTACK
+    }
+
+    public boolean isAttack() {
+        return kind == Kind.ATTACK;
+    }
+}
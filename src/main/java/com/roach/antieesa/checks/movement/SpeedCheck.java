@@ -2,75 +2,167 @@ package com.roach.antieesa.checks.movement;
 
 import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
-import org.bukkit.event.player.PlayerMoveEvent;
-import org.bukkit.potion.PotionEffectType;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.data.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
 
 public class SpeedCheck extends Check {
-    // Store last locations to calculate distance
-    private final Map<UUID, Location> lastLocations = new HashMap<>();
+    private static final Set<FrameType> FRAME_TYPES = Set.of(FrameType.MOVEMENT);
 
     // Base speeds (blocks per tick)
-    private static final double WALK_SPEED = 0.215;
-    private static final double SPRINT_SPEED = 0.38;
-    private static final double SPEED_BUFFER = 0.05; // 5% buffer for lag/legit movements
+    private static final double DEFAULT_WALK_SPEED = 0.215;
+    private static final double DEFAULT_SPRINT_SPEED = 0.38;
+    private static final double DEFAULT_SPEED_BUFFER = 0.05; // 5% buffer for lag/legit movements
+
+    private record Settings(double walkSpeed, double sprintSpeed, double speedBuffer) {
+    }
+
+    private volatile Settings settings = new Settings(DEFAULT_WALK_SPEED, DEFAULT_SPRINT_SPEED, DEFAULT_SPEED_BUFFER);
+
+    // Accumulate moves and evaluate once per tick instead of per event
+    private final boolean perTickEvaluation;
+
+    // Fed from movement packets on the network thread instead of PlayerMoveEvent
+    private final boolean packetFed;
+
+    private static class State {
+        // Movement accumulated since the last tick evaluation
+        double deltaX;
+        double deltaZ;
+
+        // Sum of each move's max speed, so sprint/potion changes mid-tick are respected
+        double allowance;
+    }
 
     public SpeedCheck() {
+        this(false, false);
+    }
+
+    /**
+     * @param perTickEvaluation aggregate moves per tick, ignored when packet fed
+     * @param packetFed         evaluate every position packet instead of PlayerMoveEvent
+     */
+    public SpeedCheck(boolean perTickEvaluation, boolean packetFed) {
         super("Speed", "Detects players moving faster than possible", 3);
+        // Per-tick state would be shared between the network thread and the tick task
+        this.perTickEvaluation = perTickEvaluation && !packetFed;
+        this.packetFed = packetFed;
+    }
+
+    @Override
+    public Set<FrameType> getFrameTypes() {
+        return FRAME_TYPES;
+    }
+
+    @Override
+    public boolean usesMovementPackets() {
+        return packetFed;
+    }
+
+    @Override
+    protected void loadSettings(ConfigurationSection config) {
+        settings = new Settings(
+                config.getDouble("walk-speed", DEFAULT_WALK_SPEED),
+                config.getDouble("sprint-speed", DEFAULT_SPRINT_SPEED),
+                config.getDouble("buffer", DEFAULT_SPEED_BUFFER));
+    }
+
+    @Override
+    public boolean isTicking() {
+        return perTickEvaluation;
+    }
+
+    @Override
+    public Object createPlayerState() {
+        return perTickEvaluation ? new State() : null;
     }
 
     @Override
-    public CheckResult check(Player player, Event event) {
-        // Only check PlayerMoveEvent
-        if (!(event instanceof PlayerMoveEvent)) {
+    public void onWorldChange(PlayerData data) {
+        // Don't evaluate the jump between worlds as movement
+        if (perTickEvaluation) {
+            State state = data.getState(this);
+            state.deltaX = 0;
+            state.deltaZ = 0;
+            state.allowance = 0;
+        }
+    }
+
+    @Override
+    public CheckResult checkMovement(PlayerData data, MovementFrame frame) {
+        // Ignore if not actually moving
+        if (!frame.isHorizontalMove()) {
             return CheckResult.pass();
         }
 
-        PlayerMoveEvent moveEvent = (PlayerMoveEvent) event;
-        Location from = moveEvent.getFrom();
-        Location to = moveEvent.getTo();
+        double deltaX = frame.deltaX();
+        double deltaZ = frame.deltaZ();
 
-        // Ignore if not actually moving
-        if (to == null || (from.getX() == to.getX() && from.getZ() == to.getZ())) {
+        if (perTickEvaluation) {
+            State state = data.getState(this);
+            state.deltaX += deltaX;
+            state.deltaZ += deltaZ;
+            state.allowance += getMaxSpeed(frame);
             return CheckResult.pass();
         }
 
-        double deltaX = to.getX() - from.getX();
-        double deltaZ = to.getZ() - from.getZ();
         double horizontalDistance = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
+        return evaluate(horizontalDistance, getMaxSpeed(frame));
+    }
 
-        double maxSpeed = player.isSprinting() ? SPRINT_SPEED : WALK_SPEED;
-
-        if (player.hasPotionEffect(PotionEffectType.SPEED)) {
-            int amplifier = player.getPotionEffect(PotionEffectType.SPEED).getAmplifier();
-            maxSpeed += maxSpeed * 0.2 * (amplifier + 1); // 20% per level
+    /**
+     * Evaluate everything moved since the last tick in one pass. The tick's
+     * net displacement is compared against the summed per-move limits, so a
+     * normal one-move tick behaves like the per-event check.
+     */
+    @Override
+    public CheckResult tick(PlayerData data) {
+        State state = data.getState(this);
+        if (state.allowance == 0) {
+            return CheckResult.pass();
         }
 
-        maxSpeed += SPEED_BUFFER;
+        double horizontalDistance = Math.sqrt(state.deltaX * state.deltaX + state.deltaZ * state.deltaZ);
+        double maxSpeed = state.allowance;
+
+        state.deltaX = 0;
+        state.deltaZ = 0;
+        state.allowance = 0;
 
+        return evaluate(horizontalDistance, maxSpeed);
+    }
+
+    private CheckResult evaluate(double horizontalDistance, double maxSpeed) {
         if (horizontalDistance > maxSpeed) {
             double percentage = ((horizontalDistance / maxSpeed) - 1.0) * 100;
             int violationLevel = getViolationLevel(percentage);
 
-            String reason = String.format("Moving %.1f%% faster than max speed (%.3f > %.3f)",
+            return CheckResult.fail(violationLevel, "Moving %.1f%% faster than max speed (%.3f > %.3f)",
                     percentage, horizontalDistance, maxSpeed);
-
-            return CheckResult.fail(reason, violationLevel);
         }
 
-        // Store location for next check
-        lastLocations.put(player.getUniqueId(), to);
-
         return CheckResult.pass();
     }
 
+    /**
+     * Max blocks per move from the sprint and Speed effect state captured with the move
+     */
+    private double getMaxSpeed(MovementFrame frame) {
+        Settings current = settings;
+        double maxSpeed = frame.sprinting() ? current.sprintSpeed() : current.walkSpeed();
+
+        int amplifier = frame.speedAmplifier();
+        if (amplifier >= 0) {
+            maxSpeed += maxSpeed * 0.2 * (amplifier + 1); // 20% per level
+        }
+
+        return maxSpeed + current.speedBuffer();
+    }
+
 
     private int getViolationLevel(double percentage) {
         if (percentage > 100) return 5; // Blatant (2x+ speed)
@@ -79,9 +171,4 @@ public class SpeedCheck extends Check {
         if (percentage > 15) return 2;  // Slightly sus
         return 1;                       // Barely over
     }
-
-
-    public void cleanup(UUID uuid) {
-        lastLocations.remove(uuid);
-    }
 }
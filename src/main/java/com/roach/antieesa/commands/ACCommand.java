@@ -1,24 +1,42 @@
 package com.roach.antieesa.commands;
 
 import com.roach.antieesa.AntiEesa;
+import com.roach.antieesa.capture.InputRecorder;
 import com.roach.antieesa.checks.Check;
+import com.roach.antieesa.checks.LoadShedder;
+import com.roach.antieesa.logging.LogPage;
+import com.roach.antieesa.logging.ViolationDatabase;
+import com.roach.antieesa.logging.ViolationJournal;
+import com.roach.antieesa.stats.CheckStats;
+import com.roach.antieesa.stats.LatencyHistogram;
 import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Command handler for /ac
- * Usage: /ac <checks|logs|clear|toggle> [args]
+ * Usage: /ac <checks|logs|history|clear|toggle|export|stats|capture|reload> [args]
  */
 public class ACCommand implements CommandExecutor, TabCompleter {
+    private static final int LOGS_PAGE_SIZE = 10;
+
     private final AntiEesa plugin;
 
     public ACCommand(AntiEesa plugin) {
@@ -64,11 +82,47 @@ public class ACCommand implements CommandExecutor, TabCompleter {
 
             case "logs":
                 if (args.length < 2) {
-                    sender.sendMessage(ChatColor.RED + "Usage: /ac logs <player>");
+                    sender.sendMessage(ChatColor.RED + "Usage: /ac logs <player> [days] [page]");
+                    return true;
+                }
+                showLogs(sender, args[1], args.length >= 3 ? args[2] : "7", args.length >= 4 ? args[3] : "1");
+                break;
+
+            case "history":
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /ac history <player> [days]");
+                    return true;
+                }
+                showHistory(sender, args[1], args.length >= 3 ? args[2] : "30");
+                break;
+
+            case "reload":
+                plugin.reloadSettings();
+                sender.sendMessage(ChatColor.GRAY + "Check settings reloaded from config.yml");
+                break;
+
+            case "stats":
+                if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+                    resetStats(sender);
+                } else {
+                    showStats(sender);
+                }
+                break;
+
+            case "export":
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /ac export <player> [days]");
+                    return true;
+                }
+                exportJournal(sender, args[1], args.length >= 3 ? args[2] : "7");
+                break;
+
+            case "capture":
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /ac capture <player> [stop]");
                     return true;
                 }
-                // TODO: Implement log viewing
-                sender.sendMessage(ChatColor.YELLOW + "Log viewing coming soon!");
+                toggleCapture(sender, args[1], args.length >= 3 && args[2].equalsIgnoreCase("stop"));
                 break;
 
             case "clear":
@@ -89,12 +143,51 @@ public class ACCommand implements CommandExecutor, TabCompleter {
     }
 
     private void sendHelp(CommandSender sender) {
+        LoadShedder loadShedder = plugin.getCheckManager().getLoadShedder();
         sender.sendMessage(ChatColor.GOLD + "=== AntiEesa Commands ===");
+        sender.sendMessage(String.format("%sLoad: %s%s %s(MSPT %.1f)",
+                ChatColor.GRAY,
+                loadShedder.getLevel() == LoadShedder.Level.NORMAL ? ChatColor.GREEN : ChatColor.RED,
+                loadShedder.getLevel(),
+                ChatColor.GRAY,
+                loadShedder.getAverageMspt()));
         sender.sendMessage(ChatColor.YELLOW + "/ac checks" + ChatColor.GRAY + " - List all checks");
         sender.sendMessage(ChatColor.YELLOW + "/ac info <check>" + ChatColor.GRAY + " - Get info about a check");
         sender.sendMessage(ChatColor.YELLOW + "/ac toggle <check>" + ChatColor.GRAY + " - Enable/disable a check");
-        sender.sendMessage(ChatColor.YELLOW + "/ac logs <player>" + ChatColor.GRAY + " - View player logs");
+        sender.sendMessage(ChatColor.YELLOW + "/ac logs <player> [days] [page]" + ChatColor.GRAY + " - View player logs");
+        sender.sendMessage(ChatColor.YELLOW + "/ac history <player> [days]" + ChatColor.GRAY + " - Flags per check across sessions");
         sender.sendMessage(ChatColor.YELLOW + "/ac clear <player>" + ChatColor.GRAY + " - Clear player violations");
+        sender.sendMessage(ChatColor.YELLOW + "/ac export <player> [days]" + ChatColor.GRAY + " - Export journal history as text");
+        sender.sendMessage(ChatColor.YELLOW + "/ac stats [reset]" + ChatColor.GRAY + " - Show per-check cost");
+        sender.sendMessage(ChatColor.YELLOW + "/ac capture <player> [stop]" + ChatColor.GRAY + " - Record check inputs for replay");
+        sender.sendMessage(ChatColor.YELLOW + "/ac reload" + ChatColor.GRAY + " - Reload check settings");
+    }
+
+    private void toggleCapture(CommandSender sender, String playerName, boolean stop) {
+        Player target = plugin.getServer().getPlayerExact(playerName);
+        if (target == null) {
+            sender.sendMessage(ChatColor.RED + "Player not online: " + playerName);
+            return;
+        }
+
+        InputRecorder recorder = plugin.getCheckManager().getInputRecorder();
+        if (stop) {
+            File file = recorder.stop(target.getUniqueId());
+            if (file == null) {
+                sender.sendMessage(ChatColor.RED + target.getName() + " is not being captured.");
+                return;
+            }
+            sender.sendMessage(ChatColor.GRAY + "Capture saved to " + ChatColor.WHITE + "captures/" + file.getName());
+            return;
+        }
+
+        File file = recorder.start(target.getUniqueId(), target.getName());
+        if (file == null) {
+            sender.sendMessage(ChatColor.RED + target.getName() + " is already being captured.");
+            return;
+        }
+        sender.sendMessage(ChatColor.GRAY + "Capturing " + ChatColor.YELLOW + target.getName()
+                + ChatColor.GRAY + " until they quit or /ac capture " + target.getName() + " stop");
     }
 
     private void listChecks(CommandSender sender) {
@@ -157,6 +250,195 @@ public class ACCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GRAY + "Violation Threshold: " + ChatColor.WHITE + check.getViolationThreshold());
     }
 
+    /**
+     * Show one page of a player's text logs, newest first. The files are
+     * read on an async task and the page sent back on the main thread.
+     */
+    private void showLogs(CommandSender sender, String playerName, String daysArg, String pageArg) {
+        int days;
+        int page;
+        try {
+            days = Integer.parseInt(daysArg);
+            page = Integer.parseInt(pageArg);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ac logs <player> [days] [page]");
+            return;
+        }
+
+        if (days < 1 || page < 1) {
+            sender.sendMessage(ChatColor.RED + "Days and page must be at least 1.");
+            return;
+        }
+
+        // Log files use the player's exact name, the database their UUID
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(playerName);
+        String name = target != null && target.getName() != null ? target.getName() : playerName;
+        UUID uuid = target != null ? target.getUniqueId() : null;
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            LogPage logs;
+            try {
+                logs = plugin.getViolationLogger().readLogs(uuid, name, days, page, LOGS_PAGE_SIZE);
+            } catch (IOException e) {
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage(ChatColor.RED + "Failed to read logs: " + e.getMessage()));
+                return;
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> sendLogs(sender, name, days, page, logs));
+        });
+    }
+
+    private void showHistory(CommandSender sender, String playerName, String daysArg) {
+        ViolationDatabase database = plugin.getViolationLogger().getDatabase();
+        if (database == null) {
+            sender.sendMessage(ChatColor.RED + "History needs logging.database enabled in config.yml");
+            return;
+        }
+
+        int days;
+        try {
+            days = Integer.parseInt(daysArg);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ac history <player> [days]");
+            return;
+        }
+
+        if (days < 1) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ac history <player> [days]");
+            return;
+        }
+
+        // History is by UUID, a name the server has never seen has none
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(playerName);
+        if (target == null) {
+            sender.sendMessage(ChatColor.RED + "Unknown player: " + playerName);
+            return;
+        }
+
+        String name = target.getName() != null ? target.getName() : playerName;
+        UUID uuid = target.getUniqueId();
+        long since = System.currentTimeMillis() - days * 24L * 60 * 60 * 1000;
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<String, Integer> counts;
+            try {
+                counts = database.countByCheck(uuid, name, since);
+            } catch (SQLException e) {
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage(ChatColor.RED + "Failed to read history: " + e.getMessage()));
+                return;
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (counts.isEmpty()) {
+                    sender.sendMessage(ChatColor.GRAY + "No violations logged for " + name + " in the last " + days + " days.");
+                    return;
+                }
+
+                int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+                sender.sendMessage(ChatColor.GOLD + "=== History for " + name + " (last " + days + " days, "
+                        + total + " flags) ===");
+                counts.forEach((check, count) -> sender.sendMessage(
+                        ChatColor.YELLOW + check + ChatColor.GRAY + ": " + ChatColor.WHITE + count));
+            });
+        });
+    }
+
+    private void sendLogs(CommandSender sender, String name, int days, int page, LogPage logs) {
+        if (logs.lines().isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + (page == 1
+                    ? "No violations logged for " + name + " in the last " + days + " days."
+                    : "No more logs for " + name + "."));
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "=== Logs for " + name + " (last " + days + " days, page " + page + ") ===");
+        for (String line : logs.lines()) {
+            sender.sendMessage(ChatColor.GRAY + line);
+        }
+
+        if (logs.hasMore()) {
+            sender.sendMessage(ChatColor.YELLOW + "/ac logs " + name + " " + days + " " + (page + 1)
+                    + ChatColor.GRAY + " for older entries");
+        }
+    }
+
+    /**
+     * Write a player's journal history to exports/ as text. The journal is
+     * read on an async task and the result reported back on the main thread.
+     */
+    private void exportJournal(CommandSender sender, String playerName, String daysArg) {
+        ViolationJournal journal = plugin.getViolationLogger().getJournal();
+        if (journal == null) {
+            sender.sendMessage(ChatColor.RED + "The violation journal is disabled.");
+            return;
+        }
+
+        int days;
+        try {
+            days = Integer.parseInt(daysArg);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Invalid number of days: " + daysArg);
+            return;
+        }
+
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(playerName);
+        if (target == null) {
+            sender.sendMessage(ChatColor.RED + "Unknown player: " + playerName);
+            return;
+        }
+
+        UUID uuid = target.getUniqueId();
+        long to = System.currentTimeMillis();
+        long from = to - days * 24L * 60 * 60 * 1000;
+        File file = new File(plugin.getDataFolder(), "exports/" + playerName + "_" + to + ".log");
+
+        sender.sendMessage(ChatColor.GRAY + "Exporting " + playerName + "'s last " + days + " days...");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            String message;
+            try {
+                Files.createDirectories(file.getParentFile().toPath());
+                try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                    int records = journal.exportText(uuid, from, to, out);
+                    message = ChatColor.GRAY + "Exported " + ChatColor.WHITE + records + ChatColor.GRAY
+                            + " violations to " + ChatColor.WHITE + "exports/" + file.getName();
+                }
+            } catch (IOException e) {
+                message = ChatColor.RED + "Export failed: " + e.getMessage();
+            }
+
+            String result = message;
+            plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(result));
+        });
+    }
+
+    private void showStats(CommandSender sender) {
+        sender.sendMessage(ChatColor.GOLD + "=== Check Stats ===");
+        for (Check check : plugin.getCheckManager().getChecks()) {
+            CheckStats stats = check.getStats();
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+
+            sender.sendMessage(String.format("%s%s %s- %d calls, %d flags | p50 %s%s%s p99 %s%s%s max %s%s",
+                    ChatColor.YELLOW,
+                    check.getName(),
+                    ChatColor.GRAY,
+                    stats.getInvocations(),
+                    stats.getFlags(),
+                    ChatColor.WHITE, CheckStats.formatNanos(latency.p50()), ChatColor.GRAY,
+                    ChatColor.WHITE, CheckStats.formatNanos(latency.p99()), ChatColor.GRAY,
+                    ChatColor.WHITE, CheckStats.formatNanos(latency.max())));
+        }
+    }
+
+    private void resetStats(CommandSender sender) {
+        for (Check check : plugin.getCheckManager().getChecks()) {
+            check.getStats().reset();
+        }
+        sender.sendMessage(ChatColor.GRAY + "Check stats have been reset");
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (!sender.hasPermission("anticheat.admin")) {
@@ -165,7 +447,8 @@ public class ACCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             // Subcommands
-            return Arrays.asList("checks", "info", "toggle", "logs", "clear")
+            return Arrays.asList("checks", "info", "toggle", "logs", "history", "clear", "export", "stats", "capture",
+                            "reload")
                     .stream()
                     .filter(s -> s.startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
@@ -181,7 +464,8 @@ public class ACCommand implements CommandExecutor, TabCompleter {
                         .collect(Collectors.toList());
             }
 
-            if (subCommand.equals("logs") || subCommand.equals("clear")) {
+            if (subCommand.equals("logs") || subCommand.equals("history") || subCommand.equals("clear")
+                    || subCommand.equals("export") || subCommand.equals("capture")) {
                 return plugin.getServer().getOnlinePlayers().stream()
                         .map(Player::getName)
                         .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
@@ -0,0 +1,163 @@
+package com.roach.antieesa.data;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.function.Predicate;
+
+/**
+ * Recent positions of entities near players in combat, so combat checks can
+ * measure against where the attacker actually saw the target rather than
+ * where it is now on the server.
+ *
+ * Only players who attacked within COMBAT_TICKS are tracked. Every tick, each
+ * entity within TRACK_RADIUS of one of them gets its position written into
+ * its PositionHistory, so idle players cost nothing. A player's first hit
+ * after a quiet spell has no history yet and is measured against the
+ * target's current position. Histories nobody has updated for a full
+ * history length are dropped. Main thread only.
+ */
+public class EntityTracker {
+    // Rewind covers up to 1000ms of ping
+    public static final int MAX_REWIND_TICKS = 20;
+
+    // Max reach plus how far a target can move while a hit is in flight
+    private static final double TRACK_RADIUS = 10.0;
+
+    // How long after their last hit a player's surroundings are still recorded
+    private static final int COMBAT_TICKS = 200;
+
+    private static final int SWEEP_INTERVAL_TICKS = 100;
+
+    private static final class Fighter {
+        final Player player;
+        int lastAttackTick;
+
+        Fighter(Player player) {
+            this.player = player;
+        }
+    }
+
+    // Entity id -> history, and attacker entity id -> fighter
+    private final IntObjectMap<PositionHistory> histories = new IntObjectMap<>();
+    private final IntObjectMap<Fighter> fighters = new IntObjectMap<>();
+
+    // Created once so the per-tick passes don't allocate
+    private final Predicate<Fighter> expiredOrRecorded = this::expiredOrRecorded;
+    private final Predicate<PositionHistory> stale = this::stale;
+
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private int currentTick = -1;
+
+    /**
+     * Start or extend tracking around a player who just attacked.
+     */
+    public void markAttacker(Player attacker) {
+        Fighter fighter = fighters.get(attacker.getEntityId());
+        if (fighter == null) {
+            fighter = new Fighter(attacker);
+            fighters.put(attacker.getEntityId(), fighter);
+        }
+        fighter.lastAttackTick = currentTick;
+    }
+
+    /**
+     * Record this tick's positions for everything near players in combat.
+     */
+    public void tick(int tick) {
+        currentTick = tick;
+
+        if (fighters.size() > 0) {
+            fighters.removeIf(expiredOrRecorded);
+        }
+
+        if (tick % SWEEP_INTERVAL_TICKS == 0) {
+            histories.removeIf(stale);
+        }
+    }
+
+    /**
+     * @return true to drop a fighter who left or stopped attacking, otherwise
+     *         records their surroundings and keeps them
+     */
+    private boolean expiredOrRecorded(Fighter fighter) {
+        Player player = fighter.player;
+        if (currentTick - fighter.lastAttackTick > COMBAT_TICKS || !player.isOnline()) {
+            return true;
+        }
+
+        record(player, currentTick);
+        for (Entity entity : player.getNearbyEntities(TRACK_RADIUS, TRACK_RADIUS, TRACK_RADIUS)) {
+            record(entity, currentTick);
+        }
+        return false;
+    }
+
+    private boolean stale(PositionHistory history) {
+        return currentTick - history.getLastTick() > PositionHistory.SIZE;
+    }
+
+    private void record(Entity entity, int tick) {
+        PositionHistory history = histories.get(entity.getEntityId());
+        if (history == null) {
+            history = new PositionHistory();
+            histories.put(entity.getEntityId(), history);
+        } else if (history.getLastTick() == tick) {
+            // Entities near several fighters are only recorded once
+            return;
+        }
+
+        Location location = entity.getLocation(scratch);
+        history.record(tick, location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * Move into to where the target was as the attacker saw it, ping
+     * milliseconds ago. The tick either side is also considered to absorb
+     * ping jitter, and the one closest to the attacker's eye wins.
+     * @return false if there's no history for that time, leaving into untouched
+     */
+    public boolean rewind(Entity target, int ping, double eyeX, double eyeY, double eyeZ, Location into) {
+        PositionHistory history = histories.get(target.getEntityId());
+        if (history == null) {
+            return false;
+        }
+
+        int ticksBack = ticksBehind(ping);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int tick = currentTick - ticksBack - 1; tick <= currentTick - ticksBack + 1; tick++) {
+            int slot = history.slotAt(tick);
+            if (slot < 0) {
+                continue;
+            }
+
+            double dx = history.getX(slot) - eyeX;
+            double dy = history.getY(slot) - eyeY;
+            double dz = history.getZ(slot) - eyeZ;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = slot;
+            }
+        }
+
+        if (best < 0) {
+            return false;
+        }
+
+        into.setX(history.getX(best));
+        into.setY(history.getY(best));
+        into.setZ(history.getZ(best));
+        return true;
+    }
+
+    /**
+     * Whole ticks of history to rewind for a round trip of ping milliseconds.
+     */
+    public static int ticksBehind(int ping) {
+        return Math.max(0, Math.min(MAX_REWIND_TICKS, Math.round(ping / 50f)));
+    }
+}
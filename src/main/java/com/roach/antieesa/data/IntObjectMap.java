@@ -0,0 +1,104 @@
+package com.roach.antieesa.data;
+
+import java.util.function.Predicate;
+
+/**
+ * Int keyed map with open addressing, so per-tick lookups by entity id don't
+ * box the key or allocate an entry. Linear probing, at most half full, null
+ * values are not allowed. Not thread safe.
+ */
+final class IntObjectMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    // Null marks an empty slot
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    IntObjectMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    void put(int key, V value) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+    }
+
+    /**
+     * Remove every value the filter accepts. The filter sees each value once.
+     * @return how many were removed
+     */
+    @SuppressWarnings("unchecked")
+    int removeIf(Predicate<? super V> filter) {
+        int removed = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && filter.test((V) values[slot])) {
+                values[slot] = null;
+                removed++;
+            }
+        }
+
+        // Emptied slots can break probe chains, so reinsert what's left
+        if (removed > 0) {
+            size -= removed;
+            rehash(values.length);
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = slot(oldKeys[i]);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.roach.antieesa.data;
+
+import com.roach.antieesa.checks.frame.MovementFrame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A player's last position as reported by their own movement packets.
+ *
+ * The position fields are only touched by the player's network thread,
+ * which handles their inbound packets in order. Outstanding server
+ * teleports are counted atomically because outbound packets may be sent
+ * from other threads; while any are unconfirmed, moves only re-base the
+ * position instead of producing a frame.
+ *
+ * Every move refills the same frame, which checks read synchronously on the
+ * network thread, so packets don't allocate.
+ */
+public class PacketPosition {
+    private final AtomicInteger pendingTeleports = new AtomicInteger();
+    private final MovementFrame frame = new MovementFrame();
+
+    private boolean hasLast;
+    private double lastX;
+    private double lastY;
+    private double lastZ;
+    private float lastYaw;
+    private float lastPitch;
+
+    /**
+     * Record a position packet.
+     * @return the move since the previous packet, valid until the next one, or
+     *         null if the position was just re-based
+     */
+    public MovementFrame move(PlayerData data, double x, double y, double z, float yaw, float pitch, long now) {
+        MovementFrame moved = null;
+        if (hasLast && pendingTeleports.get() == 0) {
+            moved = frame.set(now, lastX, lastY, lastZ, x, y, z, yaw, pitch,
+                    data.isSprinting(), data.getSpeedAmplifier());
+        }
+
+        hasLast = true;
+        lastX = x;
+        lastY = y;
+        lastZ = z;
+        lastYaw = yaw;
+        lastPitch = pitch;
+        return moved;
+    }
+
+    /**
+     * Record a rotation-only packet.
+     */
+    public void rotate(float yaw, float pitch) {
+        lastYaw = yaw;
+        lastPitch = pitch;
+    }
+
+    /**
+     * The server sent a teleport. Safe from any thread.
+     */
+    public void teleportSent() {
+        pendingTeleports.incrementAndGet();
+    }
+
+    /**
+     * The client confirmed a teleport, so its next position starts fresh.
+     */
+    public void teleportAccepted() {
+        pendingTeleports.updateAndGet(pending -> Math.max(0, pending - 1));
+        hasLast = false;
+    }
+
+    public float getLastYaw() {
+        return lastYaw;
+    }
+
+    public float getLastPitch() {
+        return lastPitch;
+    }
+}
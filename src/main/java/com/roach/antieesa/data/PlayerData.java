@@ -0,0 +1,133 @@
+package com.roach.antieesa.data;
+
+import com.roach.antieesa.checks.Check;
+import com.roach.antieesa.profile.PlayerProfile;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything the anticheat keeps about one online player.
+ * Allocated once on join and dropped as a whole on quit, so checks don't
+ * need their own UUID maps or cleanup. Each check owns one state slot,
+ * indexed by the id CheckManager assigned it at registration.
+ */
+public class PlayerData {
+    private final UUID uuid;
+    private final String name;
+    private final Object[] checkStates;
+
+    // Cached "anticheat.bypass", read from packet threads so volatile
+    private volatile boolean bypass;
+
+    // Position tracked from movement packets, network thread
+    private final PacketPosition packetPosition = new PacketPosition();
+
+    // Player attributes cached once per server tick, see refreshAttributes.
+    // Volatile because packet-fed checks read them from the network thread
+    private int attributesTick = -1;
+    private volatile boolean sprinting;
+    private volatile int speedAmplifier = -1;
+
+    // Move events seen while load shedding samples, main thread
+    private int moveSamples;
+
+    // History across sessions, null when profiles are disabled
+    private volatile PlayerProfile profile;
+
+    public PlayerData(UUID uuid, String name, List<Check> checks) {
+        this.uuid = uuid;
+        this.name = name;
+
+        int slots = 0;
+        for (Check check : checks) {
+            slots = Math.max(slots, check.getId() + 1);
+        }
+
+        this.checkStates = new Object[slots];
+        for (Check check : checks) {
+            checkStates[check.getId()] = check.createPlayerState();
+        }
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return whether the player had anticheat.bypass at the last refresh
+     */
+    public boolean isBypassing() {
+        return bypass;
+    }
+
+    /**
+     * Re-resolve the bypass permission. Main thread only.
+     */
+    public void refreshBypass(Player player) {
+        this.bypass = player.hasPermission("anticheat.bypass");
+    }
+
+    /**
+     * Re-read attributes checks need from the player, at most once per tick.
+     * Main thread only.
+     */
+    public void refreshAttributes(Player player, int tick) {
+        if (tick == attributesTick) {
+            return;
+        }
+        attributesTick = tick;
+
+        sprinting = player.isSprinting();
+        PotionEffect speed = player.getPotionEffect(PotionEffectType.SPEED);
+        speedAmplifier = speed == null ? -1 : speed.getAmplifier();
+    }
+
+    public boolean isSprinting() {
+        return sprinting;
+    }
+
+    /**
+     * @return the Speed effect amplifier, or -1 without the effect
+     */
+    public int getSpeedAmplifier() {
+        return speedAmplifier;
+    }
+
+    /**
+     * Count a move event for load-shedding sampling. Main thread only.
+     */
+    public int nextMoveSample() {
+        return ++moveSamples;
+    }
+
+    /**
+     * @return the player's cross-session history, or null if profiles are disabled
+     */
+    public PlayerProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(PlayerProfile profile) {
+        this.profile = profile;
+    }
+
+    public PacketPosition getPacketPosition() {
+        return packetPosition;
+    }
+
+    /**
+     * Get the state object a check created for this player.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getState(Check check) {
+        return (T) checkStates[check.getId()];
+    }
+}
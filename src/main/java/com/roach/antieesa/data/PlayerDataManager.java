@@ -0,0 +1,78 @@
+package com.roach.antieesa.data;
+
+import com.roach.antieesa.checks.Check;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the PlayerData of every online player.
+ * Concurrent because packet listeners look players up from network threads.
+ */
+public class PlayerDataManager {
+    private final Map<UUID, PlayerData> players = new ConcurrentHashMap<>();
+
+    public PlayerData create(Player player, List<Check> checks) {
+        PlayerData data = new PlayerData(player.getUniqueId(), player.getName(), checks);
+        data.refreshBypass(player);
+        players.put(data.getUuid(), data);
+        return data;
+    }
+
+    /**
+     * @return the player's data, or null if they haven't fully joined
+     */
+    public PlayerData get(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    public PlayerData get(Player player) {
+        return players.get(player.getUniqueId());
+    }
+
+    /**
+     * Re-resolve cached permissions for the given players. Run periodically so
+     * changes from permission plugins or /op are picked up without a rejoin.
+     */
+    public void refreshPermissions(Collection<? extends Player> online) {
+        for (Player player : online) {
+            PlayerData data = players.get(player.getUniqueId());
+            if (data != null) {
+                data.refreshBypass(player);
+            }
+        }
+    }
+
+    public PlayerData remove(UUID uuid) {
+        return players.remove(uuid);
+    }
+
+    /**
+     * Drop the data of every player not in the online set, for players whose
+     * quit was never seen (kicked mid-join, /reload).
+     * @return the removed data
+     */
+    public List<PlayerData> removeOffline(Set<UUID> online) {
+        List<PlayerData> removed = new ArrayList<>();
+        Iterator<PlayerData> it = players.values().iterator();
+        while (it.hasNext()) {
+            PlayerData data = it.next();
+            if (!online.contains(data.getUuid())) {
+                removed.add(data);
+                it.remove();
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        players.clear();
+    }
+}
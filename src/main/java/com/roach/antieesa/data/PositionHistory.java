@@ -0,0 +1,57 @@
+package com.roach.antieesa.data;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of one entity's positions, one slot per server
+ * tick. Slot lookup by tick is a mask and a compare, and the arrays are
+ * allocated once, so memory per tracked entity is constant.
+ */
+public class PositionHistory {
+    // Power of two, comfortably more than EntityTracker.MAX_REWIND_TICKS
+    static final int SIZE = 32;
+    private static final int MASK = SIZE - 1;
+
+    private final int[] ticks = new int[SIZE];
+    private final double[] xs = new double[SIZE];
+    private final double[] ys = new double[SIZE];
+    private final double[] zs = new double[SIZE];
+    private int lastTick = -1;
+
+    PositionHistory() {
+        Arrays.fill(ticks, -1);
+    }
+
+    void record(int tick, double x, double y, double z) {
+        int slot = tick & MASK;
+        ticks[slot] = tick;
+        xs[slot] = x;
+        ys[slot] = y;
+        zs[slot] = z;
+        lastTick = tick;
+    }
+
+    /**
+     * @return the slot holding the position at tick, or -1 if it wasn't recorded
+     */
+    int slotAt(int tick) {
+        int slot = tick & MASK;
+        return tick >= 0 && ticks[slot] == tick ? slot : -1;
+    }
+
+    int getLastTick() {
+        return lastTick;
+    }
+
+    double getX(int slot) {
+        return xs[slot];
+    }
+
+    double getY(int slot) {
+        return ys[slot];
+    }
+
+    double getZ(int slot) {
+        return zs[slot];
+    }
+}
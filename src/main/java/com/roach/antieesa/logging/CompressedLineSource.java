@@ -0,0 +1,164 @@
+package com.roach.antieesa.logging;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Newest-first lines of a gzipped log. Gzip can't be read backwards, so the
+ * file is streamed forwards and only the page window the caller asked for
+ * is kept, never the whole day.
+ *
+ * For the first page one pass keeps the newest lines in a ring. Deeper pages
+ * count the matching lines first, then stream again up to the end of the
+ * window. Reading past the window streams again for the next one.
+ */
+class CompressedLineSource implements LineSource {
+    private final File file;
+    private final String prefix;
+    private final int limit;
+
+    // Matching lines in the file
+    private int total;
+
+    // Forward line index of window[0], and how many lines it holds
+    private int windowStart;
+    private int windowSize;
+    private String[] window;
+
+    // Forward index one past the next line to return, counting down
+    private int index;
+
+    /**
+     * @param prefix only keep lines starting with this, stripped, or null to keep all
+     * @param skip   newest lines the caller will step over first
+     * @param limit  lines the caller will read after skipping
+     */
+    CompressedLineSource(File file, String prefix, int skip, int limit) throws IOException {
+        this.file = file;
+        this.prefix = prefix;
+        this.limit = Math.max(1, limit);
+
+        if (skip <= 0) {
+            loadNewest();
+        } else {
+            total = countLines();
+            int end = Math.max(0, total - skip);
+            loadWindow(Math.max(0, end - this.limit), end);
+        }
+        index = total;
+    }
+
+    private BufferedReader open() throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the line without the prefix, or null if it belongs to someone else
+     */
+    private String match(String line) {
+        if (prefix == null) {
+            return line;
+        }
+        return line.startsWith(prefix) ? line.substring(prefix.length()) : null;
+    }
+
+    private int countLines() throws IOException {
+        int count = 0;
+        try (BufferedReader in = open()) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (prefix == null || line.startsWith(prefix)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count every line and keep the last limit of them.
+     */
+    private void loadNewest() throws IOException {
+        String[] ring = new String[limit];
+        int count = 0;
+
+        try (BufferedReader in = open()) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String matched = match(line);
+                if (matched != null) {
+                    ring[count++ % limit] = matched;
+                }
+            }
+        }
+
+        total = count;
+        windowSize = Math.min(count, limit);
+        windowStart = count - windowSize;
+        window = new String[windowSize];
+        for (int i = 0; i < windowSize; i++) {
+            window[i] = ring[(windowStart + i) % limit];
+        }
+    }
+
+    /**
+     * Keep the matching lines with forward index in [from, to), stopping at to.
+     */
+    private void loadWindow(int from, int to) throws IOException {
+        window = new String[to - from];
+        windowStart = from;
+        int count = 0;
+
+        try (BufferedReader in = open()) {
+            String line;
+            while (count < to && (line = in.readLine()) != null) {
+                String matched = match(line);
+                if (matched == null) {
+                    continue;
+                }
+                if (count >= from) {
+                    window[count - from] = matched;
+                }
+                count++;
+            }
+        }
+        windowSize = Math.max(0, count - from);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (index == 0) {
+            return null;
+        }
+        index--;
+
+        if (index < windowStart || index >= windowStart + windowSize) {
+            loadWindow(Math.max(0, index + 1 - limit), index + 1);
+            if (index >= windowStart + windowSize) {
+                // The file no longer has that many lines
+                index = 0;
+                return null;
+            }
+        }
+        return window[index - windowStart];
+    }
+
+    @Override
+    public boolean skipLine() {
+        if (index == 0) {
+            return false;
+        }
+        index--;
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
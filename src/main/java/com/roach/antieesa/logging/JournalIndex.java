@@ -0,0 +1,173 @@
+package com.roach.antieesa.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Index of one journal segment: the segment's check name table and, per
+ * player, the time range and offsets of their records. Built in memory while
+ * a segment is active and written next to it as a sidecar when it is sealed,
+ * so lookups only touch segments and records for the requested player.
+ */
+class JournalIndex {
+    private static final int MAGIC = 0x41454958; // "AEIX"
+    private static final int VERSION = 1;
+
+    // Segment-local check id -> name
+    final List<String> checkNames = new ArrayList<>();
+    private final Map<UUID, PlayerEntry> players = new HashMap<>();
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    /**
+     * What a sealed segment covers, without the offsets: enough to skip
+     * segments that can't hold a player's records in a time range.
+     */
+    record Manifest(long minTimestamp, long maxTimestamp, Set<UUID> players) {
+        boolean mayContain(UUID player, long from, long to) {
+            return minTimestamp <= to && maxTimestamp >= from && players.contains(player);
+        }
+    }
+
+    static class PlayerEntry {
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        int[] offsets = new int[8];
+        int size;
+
+        void add(int offset, long timestamp) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+
+        boolean overlaps(long from, long to) {
+            return size > 0 && minTimestamp <= to && maxTimestamp >= from;
+        }
+    }
+
+    void add(UUID player, int offset, long timestamp) {
+        players.computeIfAbsent(player, k -> new PlayerEntry()).add(offset, timestamp);
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    /**
+     * @return the player's entry if they have records in [from, to], else null
+     */
+    PlayerEntry find(UUID player, long from, long to) {
+        if (minTimestamp > to || maxTimestamp < from) {
+            return null;
+        }
+        PlayerEntry entry = players.get(player);
+        return entry != null && entry.overlaps(from, to) ? entry : null;
+    }
+
+    Manifest manifest() {
+        return new Manifest(minTimestamp, maxTimestamp, Set.copyOf(players.keySet()));
+    }
+
+    void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+
+            out.writeShort(checkNames.size());
+            for (String name : checkNames) {
+                out.writeUTF(name);
+            }
+
+            out.writeInt(players.size());
+            for (Map.Entry<UUID, PlayerEntry> player : players.entrySet()) {
+                PlayerEntry entry = player.getValue();
+                out.writeLong(player.getKey().getMostSignificantBits());
+                out.writeLong(player.getKey().getLeastSignificantBits());
+                out.writeLong(entry.minTimestamp);
+                out.writeLong(entry.maxTimestamp);
+                out.writeInt(entry.size);
+                for (int i = 0; i < entry.size; i++) {
+                    out.writeInt(entry.offsets[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read only an index's time range and players, skipping the offsets.
+     */
+    static Manifest readManifest(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            checkHeader(in, file);
+            long minTimestamp = in.readLong();
+            long maxTimestamp = in.readLong();
+
+            int checks = in.readUnsignedShort();
+            for (int i = 0; i < checks; i++) {
+                in.readUTF();
+            }
+
+            int playerCount = in.readInt();
+            UUID[] players = new UUID[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                players[i] = new UUID(in.readLong(), in.readLong());
+                in.skipNBytes(16);
+                in.skipNBytes(4L * in.readInt());
+            }
+            return new Manifest(minTimestamp, maxTimestamp, Set.of(players));
+        }
+    }
+
+    private static void checkHeader(DataInputStream in, File file) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a journal index: " + file.getName());
+        }
+    }
+
+    static JournalIndex read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            checkHeader(in, file);
+
+            JournalIndex index = new JournalIndex();
+            index.minTimestamp = in.readLong();
+            index.maxTimestamp = in.readLong();
+
+            int checks = in.readUnsignedShort();
+            for (int i = 0; i < checks; i++) {
+                index.checkNames.add(in.readUTF());
+            }
+
+            int playerCount = in.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                PlayerEntry entry = new PlayerEntry();
+                entry.minTimestamp = in.readLong();
+                entry.maxTimestamp = in.readLong();
+                entry.size = in.readInt();
+                entry.offsets = new int[entry.size];
+                for (int j = 0; j < entry.size; j++) {
+                    entry.offsets[j] = in.readInt();
+                }
+                index.players.put(uuid, entry);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.roach.antieesa.logging;
+
+import java.util.UUID;
+
+/**
+ * One violation read back from the journal.
+ *
+ * @param timestamp ms since epoch
+ * @param count     the player's violation count for the check when it was recorded
+ */
+public record JournalRecord(long timestamp, UUID player, String check, int level, int count, String reason) {
+}
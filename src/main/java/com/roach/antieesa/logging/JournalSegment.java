@@ -0,0 +1,220 @@
+package com.roach.antieesa.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One fixed-size, memory-mapped journal segment.
+ *
+ * Layout: an 8 byte header (magic, version) followed by back-to-back
+ * records, each starting with a type byte. Unwritten space is zero, so the
+ * first END byte marks where appending resumes after a restart.
+ *
+ * CHECK:     type, short id, short length, name bytes
+ * VIOLATION: type, long timestamp, long uuid msb, long uuid lsb,
+ *            short check id, byte level, int count, short length, reason bytes
+ *
+ * Check ids are local to the segment and defined by a CHECK record before
+ * first use, so a segment decodes on its own regardless of registration order.
+ */
+class JournalSegment {
+    static final int SIZE = 16 * 1024 * 1024;
+
+    private static final int MAGIC = 0x41454A4C; // "AEJL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte END = 0;
+    private static final byte CHECK = 1;
+    private static final byte VIOLATION = 2;
+
+    private static final int VIOLATION_HEADER_SIZE = 1 + 8 + 8 + 8 + 2 + 1 + 4 + 2;
+
+    // Longer reasons are cut, they are one line of text in practice
+    static final int MAX_REASON_BYTES = 1024;
+
+    final int number;
+    private final File dataFile;
+    private final File indexFile;
+    private final MappedByteBuffer buffer;
+    private final JournalIndex index = new JournalIndex();
+    private final Map<String, Integer> checkIds = new HashMap<>();
+
+    private JournalSegment(int number, File directory, MappedByteBuffer buffer) {
+        this.number = number;
+        this.dataFile = dataFile(directory, number);
+        this.indexFile = indexFile(directory, number);
+        this.buffer = buffer;
+    }
+
+    static File dataFile(File directory, int number) {
+        return new File(directory, String.format("%06d.seg", number));
+    }
+
+    static File indexFile(File directory, int number) {
+        return new File(directory, String.format("%06d.idx", number));
+    }
+
+    static JournalSegment create(File directory, int number) throws IOException {
+        JournalSegment segment = new JournalSegment(number, directory, map(dataFile(directory, number)));
+        segment.buffer.putInt(MAGIC);
+        segment.buffer.putInt(VERSION);
+        return segment;
+    }
+
+    /**
+     * Reopen an unsealed segment, rebuilding its index by scanning the records.
+     */
+    static JournalSegment recover(File directory, int number) throws IOException {
+        JournalSegment segment = new JournalSegment(number, directory, map(dataFile(directory, number)));
+        ByteBuffer buffer = segment.buffer;
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a journal segment: " + segment.dataFile.getName());
+        }
+
+        int position = HEADER_SIZE;
+        while (position + VIOLATION_HEADER_SIZE <= SIZE) {
+            byte type = buffer.get(position);
+            if (type == CHECK) {
+                int id = buffer.getShort(position + 1);
+                int length = buffer.getShort(position + 3);
+                if (length < 0 || position + 5 + length > SIZE) {
+                    break;
+                }
+                String name = string(buffer, position + 5, length);
+                segment.defineCheck(id, name);
+                position += 5 + length;
+            } else if (type == VIOLATION) {
+                int length = buffer.getShort(position + VIOLATION_HEADER_SIZE - 2);
+                if (length < 0 || position + VIOLATION_HEADER_SIZE + length > SIZE) {
+                    break;
+                }
+                long timestamp = buffer.getLong(position + 1);
+                UUID player = new UUID(buffer.getLong(position + 9), buffer.getLong(position + 17));
+                segment.index.add(player, position, timestamp);
+                position += VIOLATION_HEADER_SIZE + length;
+            } else {
+                break;
+            }
+        }
+
+        buffer.position(position);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(SIZE);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+        }
+    }
+
+    /**
+     * Append a violation record, defining its check first if this segment hasn't seen it.
+     * @return false if it doesn't fit, the caller should roll to a new segment
+     */
+    boolean append(long timestamp, UUID player, String check, int level, int count, byte[] reason) {
+        Integer id = checkIds.get(check);
+        byte[] name = id == null ? check.getBytes(StandardCharsets.UTF_8) : null;
+
+        int needed = VIOLATION_HEADER_SIZE + reason.length + (name == null ? 0 : 5 + name.length);
+        if (buffer.remaining() < needed) {
+            return false;
+        }
+
+        if (id == null) {
+            id = checkIds.size();
+            int checkOffset = buffer.position();
+            buffer.put(END).putShort(id.shortValue()).putShort((short) name.length).put(name);
+            buffer.put(checkOffset, CHECK);
+            defineCheck(id, check);
+        }
+
+        // The type byte is written last, so a record cut short by a crash reads as END
+        int offset = buffer.position();
+        buffer.put(END)
+                .putLong(timestamp)
+                .putLong(player.getMostSignificantBits())
+                .putLong(player.getLeastSignificantBits())
+                .putShort(id.shortValue())
+                .put((byte) level)
+                .putInt(count)
+                .putShort((short) reason.length)
+                .put(reason);
+        buffer.put(offset, VIOLATION);
+
+        index.add(player, offset, timestamp);
+        return true;
+    }
+
+    private void defineCheck(int id, String name) {
+        checkIds.put(name, id);
+        while (index.checkNames.size() <= id) {
+            index.checkNames.add(null);
+        }
+        index.checkNames.set(id, name);
+    }
+
+    JournalIndex getIndex() {
+        return index;
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Flush the segment and write its index sidecar. It is read-only afterwards.
+     */
+    void seal() throws IOException {
+        buffer.force();
+        index.write(indexFile);
+    }
+
+    /**
+     * Map a sealed segment for reading. Callers keep the mapping, it is
+     * only released when it is garbage collected.
+     */
+    static ByteBuffer mapReadOnly(File directory, int number) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile(directory, number), "r")) {
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+    }
+
+    /**
+     * Decode the violation record at offset using the segment's check names.
+     */
+    static JournalRecord read(ByteBuffer buffer, int offset, List<String> checkNames) {
+        long timestamp = buffer.getLong(offset + 1);
+        UUID player = new UUID(buffer.getLong(offset + 9), buffer.getLong(offset + 17));
+        int checkId = buffer.getShort(offset + 25);
+        int level = buffer.get(offset + 27);
+        int count = buffer.getInt(offset + 28);
+        int length = buffer.getShort(offset + 32);
+        String reason = string(buffer, offset + VIOLATION_HEADER_SIZE, length);
+
+        String check = checkId < checkNames.size() ? checkNames.get(checkId) : null;
+        return new JournalRecord(timestamp, player, check == null ? "?" : check, level, count, reason);
+    }
+
+    private static String string(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package com.roach.antieesa.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lines of one log file, newest first.
+ */
+interface LineSource extends Closeable {
+
+    /**
+     * @return the previous line, or null when there are no more
+     */
+    String readLine() throws IOException;
+
+    /**
+     * Step over the previous line.
+     * @return false when there are no more
+     */
+    boolean skipLine() throws IOException;
+}
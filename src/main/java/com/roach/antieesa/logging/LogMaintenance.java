@@ -0,0 +1,238 @@
+package com.roach.antieesa.logging;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background housekeeping for the text logs, run as a repeating async task:
+ * - past days' files are gzipped, or merged into one merged/<date>.log.gz
+ *   per day (lines prefixed with "<player>: ") when merge-days is on
+ * - files older than max-age-days are deleted
+ * - the oldest days are deleted while the folder is over max-total-mb
+ *
+ * Today's files are never touched, and past files only once they have been
+ * quiet for SETTLE_MS, so nothing is compressed under the log writer.
+ * A compressed file that gets late lines has another gzip member appended.
+ */
+public class LogMaintenance implements Runnable {
+    private static final Pattern PLAYER_LOG = Pattern.compile("(.+)_(\\d{4}-\\d{2}-\\d{2})\\.log(\\.gz)?");
+    private static final Pattern MERGED_LOG = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})\\.log\\.gz");
+    private static final long SETTLE_MS = 10 * 60 * 1000;
+
+    private final File logsDirectory;
+    private final File mergedDirectory;
+    private final Logger logger;
+    private final boolean compress;
+    private final boolean mergeDays;
+    private final int maxAgeDays;
+    private final long maxTotalBytes;
+
+    private record LogFile(File file, String player, LocalDate date, boolean compressed) {
+    }
+
+    /**
+     * @param maxAgeDays 0 keeps logs forever
+     * @param maxTotalMb 0 for no size cap
+     */
+    public LogMaintenance(File logsDirectory, Logger logger, boolean compress, boolean mergeDays,
+                          int maxAgeDays, long maxTotalMb) {
+        this.logsDirectory = logsDirectory;
+        this.mergedDirectory = mergedDirectory(logsDirectory);
+        this.logger = logger;
+        this.compress = compress;
+        this.mergeDays = mergeDays;
+        this.maxAgeDays = maxAgeDays;
+        this.maxTotalBytes = maxTotalMb * 1024 * 1024;
+    }
+
+    static File mergedDirectory(File logsDirectory) {
+        return new File(logsDirectory, "merged");
+    }
+
+    @Override
+    public void run() {
+        LocalDate today = LocalDate.now();
+        long settledBefore = System.currentTimeMillis() - SETTLE_MS;
+
+        try {
+            if (maxAgeDays > 0) {
+                deleteOlderThan(today.minusDays(maxAgeDays));
+            }
+
+            if (mergeDays) {
+                mergePastDays(today, settledBefore);
+            } else if (compress) {
+                compressPastDays(today, settledBefore);
+            }
+
+            if (maxTotalBytes > 0) {
+                enforceSizeCap(today);
+            }
+        } catch (IOException e) {
+            logger.warning("Log maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void deleteOlderThan(LocalDate cutoff) {
+        for (LogFile log : scan()) {
+            if (log.date.isBefore(cutoff)) {
+                delete(log.file);
+            }
+        }
+    }
+
+    private void compressPastDays(LocalDate today, long settledBefore) throws IOException {
+        for (LogFile log : scan()) {
+            if (log.player == null || log.compressed || !log.date.isBefore(today)
+                    || log.file.lastModified() > settledBefore) {
+                continue;
+            }
+
+            File target = new File(logsDirectory, log.file.getName() + ".gz");
+            appendCompressed(List.of(log), target, false);
+        }
+    }
+
+    private void mergePastDays(LocalDate today, long settledBefore) throws IOException {
+        Map<LocalDate, List<LogFile>> byDay = new TreeMap<>();
+        for (LogFile log : scan()) {
+            if (log.player != null && log.date.isBefore(today) && log.file.lastModified() <= settledBefore) {
+                byDay.computeIfAbsent(log.date, k -> new ArrayList<>()).add(log);
+            }
+        }
+
+        Files.createDirectories(mergedDirectory.toPath());
+        for (Map.Entry<LocalDate, List<LogFile>> day : byDay.entrySet()) {
+            List<LogFile> files = day.getValue();
+            files.sort(Comparator.comparing(LogFile::player));
+            appendCompressed(files, new File(mergedDirectory, day.getKey() + ".log.gz"), true);
+        }
+    }
+
+    /**
+     * Gzip the sources into one new member, append it to target (creating it
+     * if needed), then delete the sources. The member is written to a temp
+     * file first so a failure never leaves a truncated member in target.
+     */
+    private void appendCompressed(List<LogFile> sources, File target, boolean prefixPlayer) throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(temp)), StandardCharsets.UTF_8))) {
+            for (LogFile source : sources) {
+                try (BufferedReader in = reader(source)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (prefixPlayer) {
+                            out.write(source.player);
+                            out.write(": ");
+                        }
+                        out.write(line);
+                        out.write(System.lineSeparator());
+                    }
+                }
+            }
+        }
+
+        if (target.exists()) {
+            try (OutputStream out = Files.newOutputStream(target.toPath(), StandardOpenOption.APPEND)) {
+                Files.copy(temp.toPath(), out);
+            }
+            delete(temp);
+        } else {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        for (LogFile source : sources) {
+            delete(source.file);
+        }
+    }
+
+    private void enforceSizeCap(LocalDate today) {
+        List<LogFile> logs = scan();
+        long total = 0;
+        for (LogFile log : logs) {
+            total += log.file.length();
+        }
+
+        logs.sort(Comparator.comparing(LogFile::date));
+        for (LogFile log : logs) {
+            if (total <= maxTotalBytes || !log.date.isBefore(today)) {
+                break;
+            }
+            total -= log.file.length();
+            delete(log.file);
+        }
+    }
+
+    private List<LogFile> scan() {
+        List<LogFile> logs = new ArrayList<>();
+
+        File[] files = logsDirectory.listFiles(File::isFile);
+        for (File file : files == null ? new File[0] : files) {
+            Matcher matcher = PLAYER_LOG.matcher(file.getName());
+            LocalDate date = matcher.matches() ? parseDate(matcher.group(2)) : null;
+            if (date != null) {
+                logs.add(new LogFile(file, matcher.group(1), date, matcher.group(3) != null));
+            }
+        }
+
+        File[] merged = mergedDirectory.listFiles(File::isFile);
+        for (File file : merged == null ? new File[0] : merged) {
+            Matcher matcher = MERGED_LOG.matcher(file.getName());
+            LocalDate date = matcher.matches() ? parseDate(matcher.group(1)) : null;
+            if (date != null) {
+                logs.add(new LogFile(file, null, date, true));
+            }
+        }
+
+        return logs;
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static BufferedReader reader(LogFile log) throws IOException {
+        InputStream in = new FileInputStream(log.file);
+        if (log.compressed) {
+            in = new GZIPInputStream(in);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            logger.warning("Could not delete " + file.getName());
+        }
+    }
+}
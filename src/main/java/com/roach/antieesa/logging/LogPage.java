@@ -0,0 +1,12 @@
+package com.roach.antieesa.logging;
+
+import java.util.List;
+
+/**
+ * One page of a player's text log, newest line first.
+ *
+ * @param lines   log lines prefixed with their date
+ * @param hasMore whether older lines exist past this page
+ */
+public record LogPage(List<String> lines, boolean hasMore) {
+}
@@ -0,0 +1,230 @@
+package com.roach.antieesa.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Background writer for violation log files.
+ * Callers (main thread or packet threads) only enqueue lines; a single daemon
+ * thread appends them to files it keeps open and group-commits them, flushing
+ * every FLUSH_INTERVAL_MS or once FLUSH_THRESHOLD lines are pending.
+ *
+ * Overflow policy: the queue is bounded and submit never blocks. When it is
+ * full the new line is dropped and counted, and the writer reports the number
+ * of dropped lines to the console on its next flush.
+ */
+class LogWriter implements Runnable {
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int FLUSH_THRESHOLD = 256;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    // Handles are closed once idle this long (e.g. yesterday's files)
+    private static final long IDLE_CLOSE_MS = 60000;
+    private static final int MAX_OPEN_FILES = 64;
+
+    private final Logger logger;
+    private final BlockingQueue<PendingLine> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<File, OpenFile> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private int pendingLines;
+    private long lastFlush = System.currentTimeMillis();
+
+    // A line for a text file, or a task (e.g. a journal append) when task is set
+    private static class PendingLine {
+        final File file;
+        final String line;
+        final Runnable task;
+
+        PendingLine(File file, String line, Runnable task) {
+            this.file = file;
+            this.line = line;
+            this.task = task;
+        }
+    }
+
+    private static class OpenFile {
+        final Writer writer;
+        long lastWrite;
+        boolean dirty;
+
+        OpenFile(Writer writer) {
+            this.writer = writer;
+        }
+    }
+
+    LogWriter(Logger logger) {
+        this.logger = logger;
+        this.thread = new Thread(this, "AntiEesa-LogWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue a line for appending. Safe from any thread, never blocks.
+     * @return false if the line was dropped because the queue is full
+     */
+    boolean submit(File file, String line) {
+        return offer(new PendingLine(file, line, null));
+    }
+
+    /**
+     * Queue other log I/O to run on the writer thread, in order with the lines.
+     * Same overflow policy as lines.
+     */
+    boolean submit(Runnable task) {
+        return offer(new PendingLine(null, null, task));
+    }
+
+    private boolean offer(PendingLine pending) {
+        if (!queue.offer(pending)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        List<PendingLine> batch = new ArrayList<>(FLUSH_THRESHOLD);
+
+        while (running) {
+            try {
+                PendingLine first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, FLUSH_THRESHOLD - 1);
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested, the remaining lines are drained below
+                break;
+            }
+
+            long now = System.currentTimeMillis();
+            if (pendingLines >= FLUSH_THRESHOLD || now - lastFlush >= FLUSH_INTERVAL_MS) {
+                flushAll(now);
+            }
+        }
+
+        queue.drainTo(batch);
+        writeBatch(batch);
+        closeAll();
+    }
+
+    /**
+     * Stop the writer thread, writing out everything already queued.
+     */
+    void shutdown() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(List<PendingLine> batch) {
+        long now = System.currentTimeMillis();
+        for (PendingLine pending : batch) {
+            if (pending.task != null) {
+                try {
+                    pending.task.run();
+                } catch (RuntimeException e) {
+                    logger.warning("Log task failed: " + e.getMessage());
+                }
+                continue;
+            }
+
+            try {
+                OpenFile open = open(pending.file);
+                open.writer.write(pending.line);
+                open.lastWrite = now;
+                open.dirty = true;
+                pendingLines++;
+            } catch (IOException e) {
+                logger.warning("Failed to write violation log: " + e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    private OpenFile open(File file) throws IOException {
+        OpenFile open = openFiles.get(file);
+        if (open != null) {
+            return open;
+        }
+
+        if (openFiles.size() >= MAX_OPEN_FILES) {
+            Iterator<Map.Entry<File, OpenFile>> eldest = openFiles.entrySet().iterator();
+            close(eldest.next().getValue());
+            eldest.remove();
+        }
+
+        // Plain streams rather than NIO channels: an interrupt during shutdown must not close the file
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        open = new OpenFile(writer);
+        openFiles.put(file, open);
+        return open;
+    }
+
+    private void flushAll(long now) {
+        Iterator<OpenFile> it = openFiles.values().iterator();
+        while (it.hasNext()) {
+            OpenFile open = it.next();
+            if (open.dirty) {
+                try {
+                    open.writer.flush();
+                } catch (IOException e) {
+                    logger.warning("Failed to flush violation log: " + e.getMessage());
+                }
+                open.dirty = false;
+            } else if (now - open.lastWrite > IDLE_CLOSE_MS) {
+                close(open);
+                it.remove();
+            }
+        }
+
+        pendingLines = 0;
+        lastFlush = now;
+
+        long droppedLines = dropped.getAndSet(0);
+        if (droppedLines > 0) {
+            logger.warning("Dropped " + droppedLines + " violation log lines (writer queue full)");
+        }
+    }
+
+    private void closeAll() {
+        for (OpenFile open : openFiles.values()) {
+            close(open);
+        }
+        openFiles.clear();
+    }
+
+    private void close(OpenFile open) {
+        try {
+            open.writer.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close violation log: " + e.getMessage());
+        }
+    }
+}
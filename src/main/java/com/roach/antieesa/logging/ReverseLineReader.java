@@ -0,0 +1,105 @@
+package com.roach.antieesa.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a text file's lines from last to first, a block at a time from the
+ * end, so the newest lines of a large log cost the same as a small one.
+ *
+ * A trailing line without a newline is assumed to be mid-write by the log
+ * writer and skipped.
+ */
+class ReverseLineReader implements LineSource {
+    private static final int BLOCK_SIZE = 8192;
+
+    private final RandomAccessFile file;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private byte[] line = new byte[256];
+
+    // File offset of block[0]; everything before it is still unread
+    private long position;
+    // Bytes of block not yet consumed, scanning downwards
+    private int index;
+
+    ReverseLineReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.position = this.file.length();
+
+        if (position > 0) {
+            this.file.seek(position - 1);
+            if (this.file.read() == '\n') {
+                position--;
+            } else {
+                skipLine();
+            }
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        int length = scan(true);
+        if (length < 0) {
+            return null;
+        }
+
+        // Bytes were collected last to first
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            byte swap = line[i];
+            line[i] = line[j];
+            line[j] = swap;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Step over the previous line without decoding it.
+     */
+    @Override
+    public boolean skipLine() throws IOException {
+        return scan(false) >= 0;
+    }
+
+    private int scan(boolean keep) throws IOException {
+        int length = 0;
+        boolean any = false;
+
+        while (true) {
+            if (index == 0) {
+                if (position == 0) {
+                    return any ? length : -1;
+                }
+
+                int size = (int) Math.min(BLOCK_SIZE, position);
+                position -= size;
+                file.seek(position);
+                file.readFully(block, 0, size);
+                index = size;
+            }
+
+            byte b = block[--index];
+            if (b == '\n') {
+                return length;
+            }
+
+            any = true;
+            if (keep) {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,316 @@
+package com.roach.antieesa.logging;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Violations in a local SQLite database (violations.db), indexed by player,
+ * check and time, so /ac logs and history are single indexed queries.
+ *
+ * Callers only enqueue rows. A daemon thread inserts them in batches of up to
+ * BATCH_SIZE per transaction and purges rows past the retention age hourly.
+ * Same overflow policy as the log writer: rows are dropped and counted when
+ * the queue is full. Reads use their own connection, which WAL mode lets run
+ * alongside the writer.
+ *
+ * Uses the SQLite JDBC driver Paper ships with the server.
+ */
+public final class ViolationDatabase implements Runnable {
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 512;
+    private static final long POLL_MS = 1000;
+    private static final long PURGE_INTERVAL_MS = 60 * 60 * 1000;
+
+    private static final DateTimeFormatter LINE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd [HH:mm:ss]");
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS violations (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                time INTEGER NOT NULL,
+                uuid TEXT NOT NULL,
+                name TEXT NOT NULL,
+                check_name TEXT NOT NULL,
+                level INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                reason TEXT NOT NULL,
+                flags INTEGER NOT NULL
+            )""";
+
+    private static final String[] INDEXES = {
+            "CREATE INDEX IF NOT EXISTS violations_player ON violations (uuid, time)",
+            "CREATE INDEX IF NOT EXISTS violations_name ON violations (name COLLATE NOCASE, time)",
+            "CREATE INDEX IF NOT EXISTS violations_check ON violations (check_name, time)"
+    };
+
+    private static final String INSERT =
+            "INSERT INTO violations (time, uuid, name, check_name, level, count, reason, flags)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Rows are matched by uuid, so history survives name changes. By name only when no UUID is known
+    private static final String BY_UUID = "uuid = ?";
+    private static final String BY_NAME = "name = ? COLLATE NOCASE";
+
+    private record Row(long time, UUID uuid, String name, String checkName, int level, int count, String reason,
+                       int flags) {
+    }
+
+    private final Logger logger;
+    private final long maxAgeMs;
+
+    // Writer thread only, which also closes it
+    private final Connection writeConnection;
+    private long lastPurge;
+
+    // Guarded by itself
+    private final Connection readConnection;
+
+    private final BlockingQueue<Row> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxAgeDays rows older than this are purged, 0 keeps them forever
+     */
+    public ViolationDatabase(File file, int maxAgeDays, Logger logger) throws SQLException {
+        this.logger = logger;
+        this.maxAgeMs = maxAgeDays * 24L * 60 * 60 * 1000;
+
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        this.writeConnection = open(url);
+        try (Statement statement = writeConnection.createStatement()) {
+            statement.execute(SCHEMA);
+            for (String index : INDEXES) {
+                statement.execute(index);
+            }
+        }
+        this.readConnection = open(url);
+
+        this.thread = new Thread(this, "AntiEesa-Database");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private static Connection open(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("PRAGMA busy_timeout=5000");
+        }
+        return connection;
+    }
+
+    /**
+     * Queue a violation for insertion. Safe from any thread, never blocks.
+     * @param count the player's total violations at the time
+     * @param flags how many flags the row stands for, more than 1 for a coalesced summary
+     */
+    public void record(long time, UUID uuid, String name, String checkName, int level, int count, String reason,
+                       int flags) {
+        if (!queue.offer(new Row(time, uuid, name, checkName, level, count, reason, flags))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Row> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (running) {
+            try {
+                Row first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    insert(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested, the remaining rows are inserted below
+                break;
+            }
+
+            long droppedRows = dropped.getAndSet(0);
+            if (droppedRows > 0) {
+                logger.warning("Dropped " + droppedRows + " violation database rows (queue full)");
+            }
+
+            long now = System.currentTimeMillis();
+            if (maxAgeMs > 0 && now - lastPurge >= PURGE_INTERVAL_MS) {
+                lastPurge = now;
+                purge(now - maxAgeMs);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, BATCH_SIZE);
+            insert(batch);
+        }
+
+        try {
+            writeConnection.close();
+        } catch (SQLException e) {
+            logger.warning("Failed to close the violation database: " + e.getMessage());
+        }
+    }
+
+    private void insert(List<Row> batch) {
+        try (PreparedStatement statement = writeConnection.prepareStatement(INSERT)) {
+            writeConnection.setAutoCommit(false);
+            for (Row row : batch) {
+                statement.setLong(1, row.time());
+                statement.setString(2, row.uuid().toString());
+                statement.setString(3, row.name());
+                statement.setString(4, row.checkName());
+                statement.setInt(5, row.level());
+                statement.setInt(6, row.count());
+                statement.setString(7, row.reason());
+                statement.setInt(8, row.flags());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            writeConnection.commit();
+        } catch (SQLException e) {
+            logger.warning("Failed to write " + batch.size() + " violations to the database: " + e.getMessage());
+            try {
+                writeConnection.rollback();
+            } catch (SQLException ignored) {
+                // Nothing more to do, the batch is lost either way
+            }
+        } finally {
+            batch.clear();
+            try {
+                writeConnection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // Reported by the next write
+            }
+        }
+    }
+
+    private void purge(long cutoff) {
+        try (PreparedStatement statement = writeConnection.prepareStatement("DELETE FROM violations WHERE time < ?")) {
+            statement.setLong(1, cutoff);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            logger.warning("Failed to purge old violations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One page of a player's violations, newest first, in the text log line
+     * format. Blocking, call off the main thread.
+     * @param uuid       the player, or null to match playerName instead
+     * @param days       how many calendar days back, including today
+     */
+    public LogPage readLogs(UUID uuid, String playerName, int days, int page, int pageSize) throws SQLException {
+        long since = LocalDateTime.now().toLocalDate().minusDays(days - 1L)
+                .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        List<String> lines = new ArrayList<>(pageSize);
+        boolean hasMore = false;
+
+        synchronized (readConnection) {
+            try (PreparedStatement statement = readConnection.prepareStatement(
+                    "SELECT time, check_name, level, count, reason FROM violations"
+                            + " WHERE " + (uuid != null ? BY_UUID : BY_NAME) + " AND time >= ?"
+                            + " ORDER BY time DESC, id DESC LIMIT ? OFFSET ?")) {
+                statement.setString(1, uuid != null ? uuid.toString() : playerName);
+                statement.setLong(2, since);
+                statement.setInt(3, pageSize + 1);
+                statement.setLong(4, (long) (page - 1) * pageSize);
+
+                try (ResultSet results = statement.executeQuery()) {
+                    while (results.next()) {
+                        if (lines.size() == pageSize) {
+                            hasMore = true;
+                            break;
+                        }
+                        lines.add(String.format("%s %s | Level %d | Count: %d | %s",
+                                LINE_FORMAT.format(Instant.ofEpochMilli(results.getLong(1)).atZone(ZoneId.systemDefault())),
+                                results.getString(2), results.getInt(3), results.getInt(4), results.getString(5)));
+                    }
+                }
+            }
+        }
+
+        return new LogPage(lines, hasMore);
+    }
+
+    /**
+     * Flags per check for a player since a time, across sessions, most
+     * flagged check first. Blocking, call off the main thread.
+     * @param uuid the player, or null to match playerName instead
+     */
+    public Map<String, Integer> countByCheck(UUID uuid, String playerName, long since) throws SQLException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+
+        synchronized (readConnection) {
+            try (PreparedStatement statement = readConnection.prepareStatement(
+                    "SELECT check_name, SUM(flags) AS total FROM violations"
+                            + " WHERE " + (uuid != null ? BY_UUID : BY_NAME) + " AND time >= ?"
+                            + " GROUP BY check_name ORDER BY total DESC")) {
+                statement.setString(1, uuid != null ? uuid.toString() : playerName);
+                statement.setLong(2, since);
+
+                try (ResultSet results = statement.executeQuery()) {
+                    while (results.next()) {
+                        counts.put(results.getString(1), results.getInt(2));
+                    }
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Insert everything queued and close the database. The writer closes its
+     * own connection once done.
+     */
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (thread.isAlive()) {
+            // Stuck in a batch, e.g. on a locked database. Its connection is left to it rather than closed
+            // underneath; with the queue emptied it closes it as soon as the batch returns
+            thread.interrupt();
+            int remaining = queue.size();
+            queue.clear();
+            logger.warning("Violation database writer did not finish in time, dropped " + remaining
+                    + " queued rows");
+        }
+
+        try {
+            synchronized (readConnection) {
+                readConnection.close();
+            }
+        } catch (SQLException e) {
+            logger.warning("Failed to close the violation database: " + e.getMessage());
+        }
+    }
+}
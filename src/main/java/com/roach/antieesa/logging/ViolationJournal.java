@@ -0,0 +1,224 @@
+package com.roach.antieesa.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Append-only binary violation journal.
+ *
+ * Records go into fixed-size memory-mapped segments (see JournalSegment).
+ * When a segment fills it is sealed with a sidecar index by player and time,
+ * and a new one is started. A player's history is found by checking each
+ * segment's index and reading only their records, never scanning the text.
+ *
+ * Each sealed segment has a manifest in memory (time range and players), so
+ * a query only loads the index of, and maps, segments that can hold the
+ * player's records. A sealed segment is mapped once and the mapping reused.
+ *
+ * Appends come from the log writer thread and lock the journal. Queries may
+ * come from any thread. They hold that lock only to copy the segment list and
+ * read the active segment, so the disk reads for sealed segments never stall
+ * appends.
+ */
+public class ViolationJournal {
+    private static final DateTimeFormatter EXPORT_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    // Sealed segment indexes kept in memory for repeated lookups
+    private static final int CACHED_INDEXES = 32;
+
+    private final File directory;
+    private final Logger logger;
+    // Guarded by this
+    private final List<Sealed> sealedSegments = new ArrayList<>();
+
+    // Guarded by itself, never taken while waiting for this
+    private final Map<Integer, JournalIndex> indexCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, JournalIndex> eldest) {
+            return size() > CACHED_INDEXES;
+        }
+    };
+
+    private JournalSegment active;
+
+    private static final class Sealed {
+        final int number;
+        final JournalIndex.Manifest manifest;
+
+        // Mapped on first read, then reused
+        private ByteBuffer buffer;
+
+        Sealed(int number, JournalIndex.Manifest manifest, ByteBuffer buffer) {
+            this.number = number;
+            this.manifest = manifest;
+            this.buffer = buffer;
+        }
+
+        synchronized ByteBuffer buffer(File directory) throws IOException {
+            if (buffer == null) {
+                buffer = JournalSegment.mapReadOnly(directory, number);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Open the journal in directory, resuming the last segment if it wasn't sealed.
+     */
+    public ViolationJournal(File directory, Logger logger) throws IOException {
+        this.directory = directory;
+        this.logger = logger;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        String[] names = directory.list((dir, name) -> name.endsWith(".seg"));
+        int[] numbers = names == null ? new int[0] : Arrays.stream(names)
+                .mapToInt(name -> Integer.parseInt(name.substring(0, name.length() - 4)))
+                .sorted()
+                .toArray();
+
+        for (int number : numbers) {
+            File indexFile = JournalSegment.indexFile(directory, number);
+            if (indexFile.exists()) {
+                try {
+                    sealedSegments.add(new Sealed(number, JournalIndex.readManifest(indexFile), null));
+                } catch (IOException e) {
+                    logger.warning("Skipping journal segment " + number + ", unreadable index: " + e.getMessage());
+                }
+            } else if (active == null && number == numbers[numbers.length - 1]) {
+                active = JournalSegment.recover(directory, number);
+            } else {
+                logger.warning("Skipping unsealed journal segment " + number);
+            }
+        }
+
+        if (active == null) {
+            int next = numbers.length == 0 ? 1 : numbers[numbers.length - 1] + 1;
+            active = JournalSegment.create(directory, next);
+        }
+    }
+
+    public synchronized void append(long timestamp, UUID player, String check, int level, int count, String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        if (reasonBytes.length > JournalSegment.MAX_REASON_BYTES) {
+            reasonBytes = Arrays.copyOf(reasonBytes, JournalSegment.MAX_REASON_BYTES);
+        }
+
+        try {
+            if (!active.append(timestamp, player, check, level, count, reasonBytes)) {
+                roll();
+                active.append(timestamp, player, check, level, count, reasonBytes);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to write violation journal: " + e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        active.seal();
+
+        // The segment is already mapped, keep that mapping for reads
+        JournalIndex index = active.getIndex();
+        sealedSegments.add(new Sealed(active.number, index.manifest(), active.getBuffer().asReadOnlyBuffer()));
+        synchronized (indexCache) {
+            indexCache.put(active.number, index);
+        }
+        active = JournalSegment.create(directory, active.number + 1);
+    }
+
+    /**
+     * A player's records with timestamps in [from, to], oldest first.
+     */
+    public List<JournalRecord> query(UUID player, long from, long to) throws IOException {
+        List<Sealed> sealed;
+        List<JournalRecord> recent = new ArrayList<>();
+
+        // The active segment is still being written, read it under the append lock. It's all in memory
+        synchronized (this) {
+            sealed = new ArrayList<>(sealedSegments);
+
+            JournalIndex activeIndex = active.getIndex();
+            JournalIndex.PlayerEntry entry = activeIndex.find(player, from, to);
+            if (entry != null) {
+                collect(active.getBuffer(), activeIndex, entry, from, to, recent);
+            }
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        for (Sealed segment : sealed) {
+            if (!segment.manifest.mayContain(player, from, to)) {
+                continue;
+            }
+
+            JournalIndex index = sealedIndex(segment.number);
+            JournalIndex.PlayerEntry entry = index.find(player, from, to);
+            if (entry != null) {
+                collect(segment.buffer(directory), index, entry, from, to, records);
+            }
+        }
+
+        records.addAll(recent);
+        return records;
+    }
+
+    private JournalIndex sealedIndex(int number) throws IOException {
+        synchronized (indexCache) {
+            JournalIndex index = indexCache.get(number);
+            if (index == null) {
+                index = JournalIndex.read(JournalSegment.indexFile(directory, number));
+                indexCache.put(number, index);
+            }
+            return index;
+        }
+    }
+
+    private static void collect(ByteBuffer buffer, JournalIndex index, JournalIndex.PlayerEntry entry,
+                                long from, long to, List<JournalRecord> out) {
+        for (int i = 0; i < entry.size; i++) {
+            JournalRecord record = JournalSegment.read(buffer, entry.offsets[i], index.checkNames);
+            if (record.timestamp() >= from && record.timestamp() <= to) {
+                out.add(record);
+            }
+        }
+    }
+
+    /**
+     * Write a player's records in [from, to] as text, one line per violation.
+     * @return the number of records written
+     */
+    public int exportText(UUID player, long from, long to, Writer out) throws IOException {
+        List<JournalRecord> records = query(player, from, to);
+        for (JournalRecord record : records) {
+            out.write(String.format("[%s] %s | Level %d | Count: %d | %s%n",
+                    EXPORT_FORMAT.format(Instant.ofEpochMilli(record.timestamp())),
+                    record.check(),
+                    record.level(),
+                    record.count(),
+                    record.reason()));
+        }
+        return records.size();
+    }
+
+    /**
+     * Flush the active segment. It stays unsealed and is resumed on the next start.
+     */
+    public synchronized void close() {
+        active.force();
+    }
+}
@@ -6,33 +6,98 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 public class ViolationLogger {
+    // DateTimeFormatter is immutable, so these are safe to share with packet threads
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Plain, gzipped and merged, see openDay
+    private static final int DAY_FORMS = 3;
+
     private final Plugin plugin;
     private final File logsDirectory;
-    private final SimpleDateFormat dateFormat;
-    private final SimpleDateFormat timestampFormat;
+    private final LogWriter writer;
+    private final boolean textLogs;
+
+    // Null when the journal is disabled or failed to open
+    private final ViolationJournal journal;
+
+    // Null when the database is disabled or failed to open
+    private final ViolationDatabase database;
 
     public ViolationLogger(Plugin plugin) {
+        this(plugin, true, false, false, 0);
+    }
+
+    /**
+     * @param textLogs   write the per player per day text files
+     * @param journal    write the binary violation journal
+     * @param database   write the SQLite database, which then serves /ac logs
+     * @param maxAgeDays database retention, 0 keeps rows forever
+     */
+    public ViolationLogger(Plugin plugin, boolean textLogs, boolean journal, boolean database, int maxAgeDays) {
         this.plugin = plugin;
         this.logsDirectory = new File(plugin.getDataFolder(), "logs");
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-        this.timestampFormat = new SimpleDateFormat("HH:mm:ss");
+        this.textLogs = textLogs;
 
         if (!logsDirectory.exists()) {
             logsDirectory.mkdirs();
         }
+
+        this.writer = new LogWriter(plugin.getLogger());
+        this.journal = journal ? openJournal() : null;
+        this.database = database ? openDatabase(maxAgeDays) : null;
     }
 
+    private ViolationDatabase openDatabase(int maxAgeDays) {
+        try {
+            return new ViolationDatabase(new File(plugin.getDataFolder(), "violations.db"), maxAgeDays,
+                    plugin.getLogger());
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Violation database disabled, failed to open: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ViolationJournal openJournal() {
+        try {
+            return new ViolationJournal(new File(plugin.getDataFolder(), "journal"), plugin.getLogger());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Violation journal disabled, failed to open: " + e.getMessage());
+            return null;
+        }
+    }
 
+
+    /**
+     * Format a violation and hand it to the background writer.
+     * Safe to call from any thread; the file write happens asynchronously.
+     */
     public void logViolation(Player player, Check check, CheckResult result, int totalViolations) {
-        String date = dateFormat.format(new Date());
-        String timestamp = timestampFormat.format(new Date());
+        logViolation(player, check, result, totalViolations, 1);
+    }
+
+
+    /**
+     * Log a record standing for several flags, e.g. a coalesced summary.
+     * @param flags how many flags the record counts for in the database
+     */
+    public void logViolation(Player player, Check check, CheckResult result, int totalViolations, int flags) {
+        long timestampMillis = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        String date = DATE_FORMAT.format(now);
+        String timestamp = TIMESTAMP_FORMAT.format(now);
 
         // Create log file per player per day
         File logFile = new File(logsDirectory, String.format("%s_%s.log",
@@ -45,11 +110,21 @@ public class ViolationLogger {
                 totalViolations,
                 result.getReason());
 
-        try (FileWriter fw = new FileWriter(logFile, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            pw.print(logEntry);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to write violation log: " + e.getMessage());
+        if (textLogs) {
+            writer.submit(logFile, logEntry);
+        }
+
+        if (journal != null) {
+            UUID uuid = player.getUniqueId();
+            String checkName = check.getName();
+            int level = result.getViolationLevel();
+            String reason = result.getReason();
+            writer.submit(() -> journal.append(timestampMillis, uuid, checkName, level, totalViolations, reason));
+        }
+
+        if (database != null) {
+            database.record(timestampMillis, player.getUniqueId(), player.getName(), check.getName(),
+                    result.getViolationLevel(), totalViolations, result.getReason(), flags);
         }
 
         // log to console
@@ -57,14 +132,121 @@ public class ViolationLogger {
                 player.getName(), logEntry.trim()));
     }
 
+    /**
+     * Flush queued entries and close open log files. Call on plugin disable.
+     */
+    public void shutdown() {
+        writer.shutdown();
+
+        if (journal != null) {
+            journal.close();
+        }
+
+        if (database != null) {
+            database.close();
+        }
+    }
+
+
+    /**
+     * @return the binary journal, or null if it is disabled
+     */
+    public ViolationJournal getJournal() {
+        return journal;
+    }
+
+
+    /**
+     * @return the violation database, or null if it is disabled
+     */
+    public ViolationDatabase getDatabase() {
+        return database;
+    }
+
 
     public File getLogsDirectory() {
         return logsDirectory;
     }
 
 
+    /**
+     * Read one page of a player's text logs, newest first, across the last
+     * days daily files. Plain files are read from the end and only up to the
+     * end of the page; rotated days are read from their gzipped or merged
+     * files. Served by the database instead when it is enabled, matched by
+     * UUID there. Blocking I/O, don't call on the main thread.
+     * @param uuid the player, or null if unknown
+     * @param page 1-based
+     */
+    public LogPage readLogs(UUID uuid, String playerName, int days, int page, int pageSize) throws IOException {
+        if (database != null) {
+            try {
+                return database.readLogs(uuid, playerName, days, page, pageSize);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        int skip = (page - 1) * pageSize;
+        List<String> lines = new ArrayList<>(pageSize);
+        LocalDate today = LocalDate.now();
+        File mergedDirectory = LogMaintenance.mergedDirectory(logsDirectory);
+
+        for (int day = 0; day < days; day++) {
+            String date = DATE_FORMAT.format(today.minusDays(day));
+
+            // A day is normally in one form, but late lines can leave it split. Newest form first
+            for (int form = 0; form < DAY_FORMS; form++) {
+                // One line past the page tells whether there are more
+                int wanted = pageSize - lines.size() + 1;
+                try (LineSource source = openDay(form, playerName, date, mergedDirectory, skip, wanted)) {
+                    if (source == null) {
+                        continue;
+                    }
+
+                    while (skip > 0 && source.skipLine()) {
+                        skip--;
+                    }
+
+                    String line;
+                    while ((line = source.readLine()) != null) {
+                        if (lines.size() == pageSize) {
+                            return new LogPage(lines, true);
+                        }
+                        lines.add(date + " " + line);
+                    }
+                }
+            }
+        }
+
+        return new LogPage(lines, false);
+    }
+
+
+    /**
+     * Open one of the forms a day's log can be in: 0 plain, 1 gzipped, 2 merged.
+     * Compressed forms only keep the skip and wanted window in memory.
+     * @return null if the day has no file in that form
+     */
+    private LineSource openDay(int form, String playerName, String date, File mergedDirectory,
+                               int skip, int wanted) throws IOException {
+        File file;
+        switch (form) {
+            case 0:
+                file = new File(logsDirectory, String.format("%s_%s.log", playerName, date));
+                return file.isFile() ? new ReverseLineReader(file) : null;
+            case 1:
+                file = new File(logsDirectory, String.format("%s_%s.log.gz", playerName, date));
+                return file.isFile() ? new CompressedLineSource(file, null, skip, wanted) : null;
+            default:
+                file = new File(mergedDirectory, date + ".log.gz");
+                return file.isFile() ? new CompressedLineSource(file, playerName + ": ", skip, wanted) : null;
+        }
+    }
+
+
     public File getLogFile(String playerName, Date date) {
-        String dateStr = dateFormat.format(date);
+        String dateStr = DATE_FORMAT.format(date.toInstant().atZone(ZoneId.systemDefault()));
         return new File(logsDirectory, String.format("%s_%s.log", playerName, dateStr));
     }
-}
\ No newline at end of file
+}
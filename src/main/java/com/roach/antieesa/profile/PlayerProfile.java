@@ -0,0 +1,77 @@
+package com.roach.antieesa.profile;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A player's violation history across sessions: lifetime flags per check
+ * (by check name, which is stable across restarts) and the last flag time.
+ *
+ * Updated on the main thread and saved from the profile writer thread, so
+ * access is synchronized; it is never contended in practice.
+ */
+public class PlayerProfile {
+    private final UUID uuid;
+    private final Map<String, Long> flags = new HashMap<>();
+    private long lastFlagTime;
+    private boolean dirty;
+
+    public PlayerProfile(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public synchronized void recordFlag(String checkName, long time) {
+        flags.merge(checkName, 1L, Long::sum);
+        lastFlagTime = Math.max(lastFlagTime, time);
+        dirty = true;
+    }
+
+    /**
+     * @return lifetime flags on the check, including this session
+     */
+    public synchronized long getFlags(String checkName) {
+        return flags.getOrDefault(checkName, 0L);
+    }
+
+    /**
+     * @return when the player was last flagged, 0 if never
+     */
+    public synchronized long getLastFlagTime() {
+        return lastFlagTime;
+    }
+
+    /**
+     * Add history loaded from disk to anything recorded before it arrived.
+     */
+    synchronized void merge(Map<String, Long> loadedFlags, long loadedLastFlagTime) {
+        loadedFlags.forEach((check, count) -> flags.merge(check, count, Long::sum));
+        lastFlagTime = Math.max(lastFlagTime, loadedLastFlagTime);
+    }
+
+    /**
+     * Copy the profile for saving and mark it clean.
+     * @return the copy, or null if nothing changed since the last save
+     */
+    synchronized Snapshot takeSnapshot() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return new Snapshot(new HashMap<>(flags), lastFlagTime);
+    }
+
+    /**
+     * A save failed, so the next one should retry.
+     */
+    synchronized void markDirty() {
+        dirty = true;
+    }
+
+    record Snapshot(Map<String, Long> flags, long lastFlagTime) {
+    }
+}
@@ -0,0 +1,259 @@
+package com.roach.antieesa.profile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * Bounded LRU cache of PlayerProfiles, backed by one small file per player
+ * in profiles/.
+ *
+ * Profiles of online players are attached: held outside the LRU from join
+ * until quit, so they are never evicted and always saved. Only offline
+ * profiles (preloaded or recently quit) compete for the cache's capacity.
+ *
+ * Profiles are read during AsyncPlayerPreLoginEvent, so join only ever
+ * takes one from memory. Loads run on their own threads, so a backlog of
+ * saves never delays a login, and a login waits at most LOAD_TIMEOUT_MS
+ * before the load carries on in the background. A player whose preload
+ * didn't land (e.g. on /reload) gets an empty profile at once and their
+ * history is merged into it in the background. Dirty profiles are written on
+ * quit, periodically and on eviction, all on a single writer thread. An
+ * evicted profile stays reachable until its save is written, so a load never
+ * reads a file that is about to be overwritten. Nothing here touches disk on
+ * the main thread.
+ */
+public class ProfileCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final long LOAD_TIMEOUT_MS = 2000;
+    private static final int LOADER_THREADS = 2;
+
+    private final File directory;
+    private final Logger logger;
+    // Offline profiles, LRU. Also the lock for attached and saving
+    private final Map<UUID, PlayerProfile> cache;
+
+    // Profiles of online players, between get and release
+    private final Map<UUID, PlayerProfile> attached = new HashMap<>();
+
+    // Evicted profiles whose save hasn't been written yet, adopted back instead of read from disk
+    private final Map<UUID, PlayerProfile> saving = new HashMap<>();
+
+    // Saves, in submission order
+    private final ExecutorService io = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AntiEesa-Profiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Loads, kept apart from the save queue
+    private final ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "AntiEesa-Profile-Loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProfileCache(File directory, int capacity, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PlayerProfile> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                // Nobody holds an offline profile, so once saved it can go
+                PlayerProfile evicted = eldest.getValue();
+                saving.put(evicted.getUuid(), evicted);
+                io.execute(() -> {
+                    save(evicted);
+                    synchronized (cache) {
+                        saving.remove(evicted.getUuid(), evicted);
+                    }
+                });
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Read a player's profile into the cache. Blocks for at most
+     * LOAD_TIMEOUT_MS, called from AsyncPlayerPreLoginEvent.
+     */
+    public void preload(UUID uuid) {
+        PlayerProfile profile;
+        synchronized (cache) {
+            if (cache.containsKey(uuid) || attached.containsKey(uuid)) {
+                return;
+            }
+
+            // Its save is still queued, so memory is newer than the file
+            profile = saving.remove(uuid);
+            if (profile != null) {
+                cache.put(uuid, profile);
+                return;
+            }
+
+            // Cached before it's filled, so join finds it even if the load outlasts the wait
+            profile = new PlayerProfile(uuid);
+            cache.put(uuid, profile);
+        }
+
+        PlayerProfile loading = profile;
+        try {
+            loader.submit(() -> load(loading)).get(LOAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            logger.warning("Slow profile load for " + uuid + ", finishing it in the background");
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // Shutting down, or the load failed and was logged
+        }
+    }
+
+    /**
+     * Attach the profile of a joining player, until release. Never blocks: if
+     * it wasn't preloaded, an empty one is returned and filled from disk in
+     * the background.
+     */
+    public PlayerProfile get(UUID uuid) {
+        synchronized (cache) {
+            PlayerProfile profile = attached.get(uuid);
+            if (profile == null) {
+                profile = cache.remove(uuid);
+            }
+            if (profile == null) {
+                profile = saving.remove(uuid);
+            }
+            if (profile == null) {
+                PlayerProfile created = new PlayerProfile(uuid);
+                loader.execute(() -> load(created));
+                profile = created;
+            }
+
+            attached.put(uuid, profile);
+            return profile;
+        }
+    }
+
+    /**
+     * Detach a quitting player's profile and queue a save if it changed. It
+     * moves back to the LRU for a quick rejoin.
+     */
+    public void release(PlayerProfile profile) {
+        synchronized (cache) {
+            if (attached.remove(profile.getUuid(), profile)) {
+                cache.put(profile.getUuid(), profile);
+            }
+        }
+        io.execute(() -> save(profile));
+    }
+
+    /**
+     * Queue a save of every attached or cached profile that changed. Called
+     * periodically and on shutdown.
+     */
+    public void saveDirty() {
+        List<PlayerProfile> profiles;
+        synchronized (cache) {
+            profiles = new ArrayList<>(attached.values());
+            profiles.addAll(cache.values());
+        }
+        io.execute(() -> profiles.forEach(this::save));
+    }
+
+    /**
+     * Save everything and stop the writer thread. Call on plugin disable.
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+        saveDirty();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Timed out saving player profiles");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private File fileFor(UUID uuid) {
+        return new File(directory, uuid + ".dat");
+    }
+
+    private void load(PlayerProfile profile) {
+        File file = fileFor(profile.getUuid());
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("unknown format");
+            }
+
+            long lastFlagTime = in.readLong();
+            int checks = in.readInt();
+            Map<String, Long> flags = new HashMap<>();
+            for (int i = 0; i < checks; i++) {
+                flags.put(in.readUTF(), in.readLong());
+            }
+            profile.merge(flags, lastFlagTime);
+        } catch (FileNotFoundException e) {
+            // First time we've seen this player
+        } catch (IOException e) {
+            logger.warning("Failed to load profile " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void save(PlayerProfile profile) {
+        PlayerProfile.Snapshot snapshot = profile.takeSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+
+        File file = fileFor(profile.getUuid());
+        File temp = new File(directory, file.getName() + ".tmp");
+
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(snapshot.lastFlagTime());
+                out.writeInt(snapshot.flags().size());
+                for (Map.Entry<String, Long> entry : snapshot.flags().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+
+            // Readers never see a half-written profile
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            profile.markDirty();
+            logger.warning("Failed to save profile " + file.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.roach.antieesa.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost and outcome counters for one check, recorded wherever it runs.
+ */
+public class CheckStats {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder flags = new LongAdder();
+
+    /**
+     * Record one evaluation. Safe from any thread.
+     */
+    public void record(long nanos, boolean flagged) {
+        latency.record(nanos);
+        invocations.increment();
+        if (flagged) {
+            flags.increment();
+        }
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getFlags() {
+        return flags.sum();
+    }
+
+    public void reset() {
+        latency.reset();
+        invocations.reset();
+        flags.reset();
+    }
+
+    /**
+     * Nanoseconds as microseconds for display, e.g. "12.3µs".
+     */
+    public static String formatNanos(long nanos) {
+        return String.format("%.1fµs", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.roach.antieesa.stats;
+
+import com.roach.antieesa.checks.Check;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Appends every check's stats to stats/stats_<date>.log. Scheduled as an
+ * async repeating task; stats are lock-free so reading them off the main
+ * thread is fine.
+ */
+public class StatsDumper implements Runnable {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final Plugin plugin;
+    private final File statsDirectory;
+    private final Supplier<List<Check>> checks;
+
+    public StatsDumper(Plugin plugin, Supplier<List<Check>> checks) {
+        this.plugin = plugin;
+        this.statsDirectory = new File(plugin.getDataFolder(), "stats");
+        this.checks = checks;
+    }
+
+    @Override
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        String timestamp = TIMESTAMP_FORMAT.format(now);
+        StringBuilder out = new StringBuilder();
+
+        for (Check check : checks.get()) {
+            CheckStats stats = check.getStats();
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+
+            out.append(String.format("[%s] %s | Calls: %d | Flags: %d | p50: %s | p99: %s | max: %s%n",
+                    timestamp,
+                    check.getName(),
+                    stats.getInvocations(),
+                    stats.getFlags(),
+                    CheckStats.formatNanos(latency.p50()),
+                    CheckStats.formatNanos(latency.p99()),
+                    CheckStats.formatNanos(latency.max())));
+        }
+
+        try {
+            Files.createDirectories(statsDirectory.toPath());
+            File file = new File(statsDirectory, "stats_" + DATE_FORMAT.format(now) + ".log");
+            Files.writeString(file.toPath(), out, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write check stats: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.roach.antieesa.violations;
+
+import com.roach.antieesa.checks.Check;
+import com.roach.antieesa.checks.CheckResult;
+import com.roach.antieesa.logging.ViolationLogger;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Merges repeated flags of one player on one check before they are logged.
+ *
+ * The first flag over threshold is logged straight away and opens a window.
+ * Flags inside the window are only counted; when it closes, one summary
+ * record with the count, level range and the worst reason is written. A
+ * blatant cheater in a fight costs two log lines per window instead of one
+ * per hit. Main thread only.
+ */
+public class ViolationCoalescer {
+    private static class Window {
+        final Player player;
+        final Check check;
+        final long opened;
+
+        // Flags merged after the one logged when the window opened
+        int count;
+        int minLevel = Integer.MAX_VALUE;
+        int maxLevel;
+        int lastTotal;
+        CheckResult worst;
+
+        Window(Player player, Check check, long opened) {
+            this.player = player;
+            this.check = check;
+            this.opened = opened;
+        }
+    }
+
+    private final ViolationLogger logger;
+    private final LongSupplier clock;
+
+    // Player UUID -> open window per check id
+    private final Map<UUID, Window[]> windows = new HashMap<>();
+    private int openWindows;
+
+    // 0 logs every flag
+    private long windowMs = 5000;
+
+    public ViolationCoalescer(ViolationLogger logger) {
+        this(logger, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock milliseconds, must not go backwards
+     */
+    public ViolationCoalescer(ViolationLogger logger, LongSupplier clock) {
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    public void setWindow(long windowMs) {
+        this.windowMs = Math.max(0, windowMs);
+    }
+
+    /**
+     * Log a flag that reached the check's threshold, or merge it into the
+     * player's open window for that check.
+     */
+    public void log(Player player, Check check, CheckResult result, int totalViolations) {
+        if (windowMs == 0) {
+            logger.logViolation(player, check, result, totalViolations);
+            return;
+        }
+
+        int id = check.getId();
+        Window[] slots = windows.get(player.getUniqueId());
+        if (slots == null || id >= slots.length) {
+            slots = slots == null ? new Window[id + 1] : Arrays.copyOf(slots, id + 1);
+            windows.put(player.getUniqueId(), slots);
+        }
+
+        Window window = slots[id];
+        if (window == null) {
+            logger.logViolation(player, check, result, totalViolations);
+            slots[id] = new Window(player, check, clock.getAsLong());
+            openWindows++;
+            return;
+        }
+
+        int level = result.getViolationLevel();
+        window.count++;
+        window.minLevel = Math.min(window.minLevel, level);
+        if (level > window.maxLevel) {
+            window.maxLevel = level;
+            window.worst = result;
+        }
+        window.lastTotal = totalViolations;
+    }
+
+    /**
+     * Close windows older than the window length. Called every tick.
+     */
+    public void flushExpired() {
+        if (openWindows == 0) {
+            return;
+        }
+
+        long cutoff = clock.getAsLong() - windowMs;
+        Iterator<Window[]> it = windows.values().iterator();
+        while (it.hasNext()) {
+            Window[] slots = it.next();
+            boolean empty = true;
+
+            for (int id = 0; id < slots.length; id++) {
+                if (slots[id] != null && slots[id].opened <= cutoff) {
+                    close(slots[id]);
+                    slots[id] = null;
+                }
+                empty &= slots[id] == null;
+            }
+
+            if (empty) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Close all of a player's windows, e.g. on quit.
+     */
+    public void flush(UUID uuid) {
+        Window[] slots = windows.remove(uuid);
+        if (slots == null) {
+            return;
+        }
+
+        for (Window window : slots) {
+            if (window != null) {
+                close(window);
+            }
+        }
+    }
+
+    public void flushAll() {
+        for (UUID uuid : windows.keySet().toArray(new UUID[0])) {
+            flush(uuid);
+        }
+    }
+
+    private void close(Window window) {
+        openWindows--;
+        if (window.count == 0) {
+            return;
+        }
+
+        double seconds = (clock.getAsLong() - window.opened) / 1000.0;
+        CheckResult summary = CheckResult.fail(window.maxLevel, "+%d flags in %.1fs (level %d-%d), worst: %s",
+                window.count, seconds, window.minLevel, window.maxLevel, window.worst.getReason());
+        logger.logViolation(window.player, window.check, summary, window.lastTotal, window.count);
+    }
+}
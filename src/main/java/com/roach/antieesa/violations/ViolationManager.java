@@ -4,81 +4,219 @@ import com.roach.antieesa.checks.Check;
 import com.roach.antieesa.checks.CheckResult;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Violation counts per player per check.
+ *
+ * Each player has one AtomicLongArray indexed by check id. A slot packs the
+ * count (high 24 bits) and the decay anchor time (low 40 bits, ms since this
+ * manager was created), so a violation is a single CAS with no boxing or
+ * string hashing, and concurrent writers can't lose updates.
+ *
+ * Decay is a leaky bucket computed lazily on read: one point drains every
+ * decay time since the anchor, whether or not new violations arrive.
+ */
 public class ViolationManager {
-    // Player UUID -> Check Name -> Violation Count
-    private final Map<UUID, Map<String, Integer>> violations;
+    private static final long DEFAULT_DECAY_TIME = 30000; // 30 seconds
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final int MAX_COUNT = (1 << (Long.SIZE - TIME_BITS)) - 1;
+
+    // Player UUID -> packed slot per check id
+    private final Map<UUID, AtomicLongArray> violations;
 
-    // Player UUID -> Check Name -> Last Violation Time
-    private final Map<UUID, Map<String, Long>> lastViolationTime;
+    // Check id -> Check, for name lookups
+    private volatile Check[] checks = new Check[0];
 
-    private static final long DECAY_TIME = 30000; // 30 seconds
+    // Wall clock on the server, capture time in the replay tool
+    private final LongSupplier clock;
+    private final long epoch;
+
+    // One point drains per this many ms, set from config
+    private volatile long decayTime = DEFAULT_DECAY_TIME;
 
     public ViolationManager() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock milliseconds, must not go backwards
+     */
+    public ViolationManager(LongSupplier clock) {
         this.violations = new ConcurrentHashMap<>();
-        this.lastViolationTime = new ConcurrentHashMap<>();
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
     }
 
 
-    public boolean recordViolation(Player player, Check check, CheckResult result) {
-        UUID uuid = player.getUniqueId();
-        String checkName = check.getName();
+    public void setDecayTime(long decayTime) {
+        this.decayTime = Math.max(1, decayTime);
+    }
+
 
-        violations.putIfAbsent(uuid, new ConcurrentHashMap<>());
-        lastViolationTime.putIfAbsent(uuid, new ConcurrentHashMap<>());
+    /**
+     * Make a check's id known so per-player arrays are sized for it.
+     * Called by CheckManager when the check is registered.
+     */
+    public synchronized void registerCheck(Check check) {
+        Check[] updated = Arrays.copyOf(checks, Math.max(checks.length, check.getId() + 1));
+        updated[check.getId()] = check;
+        checks = updated;
+    }
 
-        Map<String, Integer> playerViolations = violations.get(uuid);
-        Map<String, Long> playerTimes = lastViolationTime.get(uuid);
 
-        // Check for decay
-        long currentTime = System.currentTimeMillis();
-        long lastTime = playerTimes.getOrDefault(checkName, 0L);
+    /**
+     * Record one violation, applying any decay due since the last one.
+     * Safe to call from any thread.
+     * @return the player's count for this check after recording
+     */
+    public int recordViolation(Player player, Check check, CheckResult result) {
+        return recordViolation(player.getUniqueId(), check);
+    }
+
 
-        if (currentTime - lastTime > DECAY_TIME) {
-            // Decay violations over time
-            int currentViolations = playerViolations.getOrDefault(checkName, 0);
-            if (currentViolations > 0) {
-                playerViolations.put(checkName, Math.max(0, currentViolations - 1));
+    /**
+     * Record one violation for a player by UUID, e.g. when replaying a capture.
+     * @return the player's count for this check after recording
+     */
+    public int recordViolation(UUID uuid, Check check) {
+        AtomicLongArray slots = slotsFor(uuid, check.getId());
+        int id = check.getId();
+        long now = now();
+
+        while (true) {
+            long packed = slots.get(id);
+            int count = decayedCount(packed, now);
+            int newCount = Math.min(MAX_COUNT, count + 1);
+
+            // Keep the partial decay interval unless the bucket was empty
+            long anchor = count > 0 ? decayedAnchor(packed, now) : now;
+
+            if (slots.compareAndSet(id, packed, pack(newCount, anchor))) {
+                return newCount;
             }
         }
+    }
 
-        int newCount = playerViolations.getOrDefault(checkName, 0) + 1;
-        playerViolations.put(checkName, newCount);
-        playerTimes.put(checkName, currentTime);
 
-        return newCount >= check.getViolationThreshold();
+    public int getViolationCount(UUID uuid, Check check) {
+        AtomicLongArray slots = violations.get(uuid);
+        if (slots == null || check.getId() >= slots.length()) {
+            return 0;
+        }
+        return decayedCount(slots.get(check.getId()), now());
     }
 
 
-    public int getViolationCount(UUID uuid, String checkName) {
-        return violations.getOrDefault(uuid, new HashMap<>())
-                .getOrDefault(checkName, 0);
+    /**
+     * @return whether the player has any undecayed violation for any check
+     */
+    public boolean hasViolations(UUID uuid) {
+        AtomicLongArray slots = violations.get(uuid);
+        if (slots == null) {
+            return false;
+        }
+
+        long now = now();
+        for (int id = 0; id < slots.length(); id++) {
+            if (decayedCount(slots.get(id), now) > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
     public void clearViolations(UUID uuid) {
         violations.remove(uuid);
-        lastViolationTime.remove(uuid);
     }
 
-    public void clearViolations(UUID uuid, String checkName) {
-        Map<String, Integer> playerViolations = violations.get(uuid);
-        if (playerViolations != null) {
-            playerViolations.remove(checkName);
-        }
+    /**
+     * Drop counts of every player not in the online set.
+     * @return how many players were dropped
+     */
+    public int retainPlayers(Set<UUID> online) {
+        int before = violations.size();
+        violations.keySet().retainAll(online);
+        return before - violations.size();
+    }
 
-        Map<String, Long> playerTimes = lastViolationTime.get(uuid);
-        if (playerTimes != null) {
-            playerTimes.remove(checkName);
+    public void clearViolations(UUID uuid, Check check) {
+        AtomicLongArray slots = violations.get(uuid);
+        if (slots != null && check.getId() < slots.length()) {
+            slots.set(check.getId(), 0L);
         }
     }
 
 
     public Map<String, Integer> getAllViolations(UUID uuid) {
-        return new HashMap<>(violations.getOrDefault(uuid, new HashMap<>()));
+        Map<String, Integer> result = new HashMap<>();
+        AtomicLongArray slots = violations.get(uuid);
+        if (slots == null) {
+            return result;
+        }
+
+        Check[] known = checks;
+        long now = now();
+        for (int id = 0; id < Math.min(known.length, slots.length()); id++) {
+            int count = decayedCount(slots.get(id), now);
+            if (count > 0 && known[id] != null) {
+                result.put(known[id].getName(), count);
+            }
+        }
+        return result;
+    }
+
+
+    private AtomicLongArray slotsFor(UUID uuid, int id) {
+        AtomicLongArray slots = violations.computeIfAbsent(uuid, k -> new AtomicLongArray(checks.length));
+        if (id < slots.length()) {
+            return slots;
+        }
+
+        // Check registered after this player's array was created, grow it
+        return violations.compute(uuid, (k, current) -> {
+            if (current != null && id < current.length()) {
+                return current;
+            }
+            AtomicLongArray grown = new AtomicLongArray(Math.max(checks.length, id + 1));
+            for (int i = 0; current != null && i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            return grown;
+        });
+    }
+
+    private long now() {
+        return clock.getAsLong() - epoch;
+    }
+
+    private static long pack(int count, long anchor) {
+        return ((long) count << TIME_BITS) | (anchor & TIME_MASK);
+    }
+
+    private int decayedCount(long packed, long now) {
+        int count = (int) (packed >>> TIME_BITS);
+        if (count == 0) {
+            return 0;
+        }
+        long drained = (now - (packed & TIME_MASK)) / decayTime;
+        return (int) Math.max(0, count - drained);
+    }
+
+    private long decayedAnchor(long packed, long now) {
+        long anchor = packed & TIME_MASK;
+        long decay = decayTime;
+        long drained = (now - anchor) / decay;
+        return anchor + drained * decay;
     }
-}
\ No newline at end of file
+}
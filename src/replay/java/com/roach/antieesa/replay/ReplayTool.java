@@ -0,0 +1,316 @@
+package com.roach.antieesa.replay;
+
+import com.roach.antieesa.capture.CaptureReader;
+import com.roach.antieesa.checks.Check;
+import com.roach.antieesa.checks.CheckResult;
+import com.roach.antieesa.checks.combat.KillAuraCheck;
+import com.roach.antieesa.checks.combat.MultiTargetCheck;
+import com.roach.antieesa.checks.combat.ReachCheck;
+import com.roach.antieesa.checks.combat.RotationAuraCheck;
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.FrameType;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.checks.movement.SpeedCheck;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.stats.CheckStats;
+import com.roach.antieesa.stats.LatencyHistogram;
+import com.roach.antieesa.violations.ViolationManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Feeds capture files (see /ac capture) through the checks without a server,
+ * to regression-test threshold changes against recorded cheater and legit
+ * sessions and to measure check throughput.
+ *
+ * Usage: ./gradlew replay --args="[--config config.yml] [--repeat N] <file.cap|directory>..."
+ *
+ * Each capture is decoded into memory once, then dispatched the way
+ * CheckManager would on the server, N times with fresh check state. Only the
+ * dispatch is timed. Without --config the bundled config.yml is used.
+ *
+ * Flags go through a ViolationManager running on capture time, with the
+ * configured decay, so the report shows both raw flags and how many would
+ * have reached each check's threshold and been logged. The repeat offender
+ * reduction needs a player's stored profile and is not applied.
+ */
+public final class ReplayTool {
+    // Decoded records, kept as objects so dispatch is just the check calls
+    private record Move(MovementFrame frame, boolean fromPacket) {
+    }
+
+    private record Tick(int tick) {
+    }
+
+    private record Capture(String file, UUID uuid, String player, List<Object> records) {
+    }
+
+    // One check's results for a run
+    private static final class Tally {
+        long flags;
+        long logged;
+        int maxLevel;
+        final List<String> reasons = new ArrayList<>();
+    }
+
+    // State shared by every record of a run
+    private record Run(PlayerData data, List<Check> checks, Tally[] tallies, ViolationManager violations,
+                       long[] clock) {
+    }
+
+    private static final int SAMPLE_REASONS = 3;
+
+    private ReplayTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File configFile = null;
+        int repeat = 1;
+        List<File> inputs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--config") && i + 1 < args.length) {
+                configFile = new File(args[++i]);
+            } else if (args[i].equals("--repeat") && i + 1 < args.length) {
+                repeat = Math.max(1, Integer.parseInt(args[++i]));
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: replay [--config config.yml] [--repeat N] <file.cap|directory>...");
+            System.exit(1);
+        }
+
+        YamlConfiguration config = loadConfig(configFile);
+        for (File file : captureFiles(inputs)) {
+            replay(load(file), config, repeat);
+        }
+    }
+
+    private static YamlConfiguration loadConfig(File file) throws IOException {
+        if (file != null) {
+            return YamlConfiguration.loadConfiguration(file);
+        }
+
+        try (InputStream in = ReplayTool.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (in == null) {
+                return new YamlConfiguration();
+            }
+            return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static List<File> captureFiles(List<File> inputs) {
+        List<File> files = new ArrayList<>();
+        for (File input : inputs) {
+            File[] listed = input.isDirectory() ? input.listFiles((dir, name) -> name.endsWith(".cap")) : null;
+            if (listed != null) {
+                Arrays.sort(listed);
+                files.addAll(Arrays.asList(listed));
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    private static Capture load(File file) throws IOException {
+        List<Object> records = new ArrayList<>();
+
+        try (CaptureReader reader = new CaptureReader(file)) {
+            reader.replay(new CaptureReader.Visitor() {
+                @Override
+                public void move(MovementFrame frame, boolean fromPacket) {
+                    records.add(new Move(frame, fromPacket));
+                }
+
+                @Override
+                public void combat(CombatFrame frame) {
+                    records.add(frame);
+                }
+
+                @Override
+                public void tick(int tick) {
+                    records.add(new Tick(tick));
+                }
+
+                @Override
+                public void packet(PacketFrame frame) {
+                    records.add(frame);
+                }
+            });
+            return new Capture(file.getName(), reader.getUuid(), reader.getName(), records);
+        }
+    }
+
+    /**
+     * Same checks and options AntiEesa registers, configured from config.yml.
+     */
+    private static List<Check> createChecks(YamlConfiguration config) {
+        List<Check> checks = List.of(
+                new SpeedCheck(
+                        config.getBoolean("checks.speed.per-tick-evaluation", false),
+                        "packet".equalsIgnoreCase(config.getString("checks.speed.source", "event"))),
+                new KillAuraCheck(),
+                new RotationAuraCheck(),
+                new MultiTargetCheck(),
+                new ReachCheck());
+
+        for (int id = 0; id < checks.size(); id++) {
+            Check check = checks.get(id);
+            check.setId(id);
+            ConfigurationSection section = config.getConfigurationSection("checks." + check.getConfigKey());
+            check.loadConfig(section != null ? section : new MemoryConfiguration());
+        }
+        return checks;
+    }
+
+    private static void replay(Capture capture, YamlConfiguration config, int repeat) {
+        Run run = null;
+        long elapsed = 0;
+
+        for (int i = 0; i < repeat; i++) {
+            // Fresh checks and counts per run so state and stats match a single session
+            run = createRun(capture, config);
+
+            long start = System.nanoTime();
+            for (Object record : capture.records()) {
+                dispatch(record, run);
+            }
+            elapsed += System.nanoTime() - start;
+        }
+
+        long total = (long) capture.records().size() * repeat;
+        System.out.printf("%s (%s): %d records x %d, %.0f records/s%n",
+                capture.file(), capture.player(), capture.records().size(), repeat,
+                elapsed == 0 ? 0.0 : total * 1e9 / elapsed);
+
+        for (int i = 0; i < run.checks().size(); i++) {
+            Check check = run.checks().get(i);
+            CheckStats stats = check.getStats();
+            if (stats.getInvocations() == 0) {
+                continue;
+            }
+
+            Tally tally = run.tallies()[i];
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            System.out.printf("  %-18s %8d calls %6d flags %6d logged  max level %d  p50 %s  p99 %s%n",
+                    check.getName(), stats.getInvocations(), tally.flags, tally.logged, tally.maxLevel,
+                    CheckStats.formatNanos(latency.p50()), CheckStats.formatNanos(latency.p99()));
+            for (String reason : tally.reasons) {
+                System.out.println("      " + reason);
+            }
+        }
+    }
+
+    private static Run createRun(Capture capture, YamlConfiguration config) {
+        List<Check> checks = createChecks(config);
+        Tally[] tallies = new Tally[checks.size()];
+        for (int i = 0; i < tallies.length; i++) {
+            tallies[i] = new Tally();
+        }
+
+        // Decay runs on capture time, starting at the first timestamped record
+        long[] clock = {0};
+        for (Object record : capture.records()) {
+            long time = timestamp(record);
+            if (time > 0) {
+                clock[0] = time;
+                break;
+            }
+        }
+
+        ViolationManager violations = new ViolationManager(() -> clock[0]);
+        violations.setDecayTime(config.getLong("violations.decay-seconds", 30) * 1000);
+        for (Check check : checks) {
+            violations.registerCheck(check);
+        }
+
+        return new Run(new PlayerData(capture.uuid(), capture.player(), checks), checks, tallies, violations, clock);
+    }
+
+    /**
+     * @return the record's capture time in ms, or 0 for ticks
+     */
+    private static long timestamp(Object record) {
+        if (record instanceof Move move) {
+            return move.frame().timestamp();
+        } else if (record instanceof CombatFrame frame) {
+            return frame.timestamp();
+        } else if (record instanceof PacketFrame frame) {
+            return frame.timestamp();
+        }
+        return 0;
+    }
+
+    private static void dispatch(Object record, Run run) {
+        PlayerData data = run.data();
+        List<Check> checks = run.checks();
+
+        // Packet and main thread records can interleave slightly out of order, keep the clock monotonic
+        run.clock()[0] = Math.max(run.clock()[0], timestamp(record));
+
+        for (int i = 0; i < checks.size(); i++) {
+            Check check = checks.get(i);
+            if (!check.isEnabled()) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            CheckResult result;
+            if (record instanceof Move move) {
+                if (!check.getFrameTypes().contains(FrameType.MOVEMENT)
+                        || move.fromPacket() != check.usesMovementPackets()) {
+                    continue;
+                }
+                result = check.checkMovement(data, move.frame());
+            } else if (record instanceof CombatFrame frame) {
+                if (!check.getFrameTypes().contains(FrameType.COMBAT)) {
+                    continue;
+                }
+                result = check.checkCombat(data, frame);
+            } else if (record instanceof Tick) {
+                if (!check.isTicking()) {
+                    continue;
+                }
+                result = check.tick(data);
+            } else if (record instanceof PacketFrame frame) {
+                if (!check.getFrameTypes().contains(FrameType.PACKET)) {
+                    continue;
+                }
+                result = check.checkPacket(data, frame);
+            } else {
+                continue;
+            }
+            check.getStats().record(System.nanoTime() - start, result.isViolated());
+
+            if (result.isViolated()) {
+                Tally tally = run.tallies()[i];
+                tally.flags++;
+                tally.maxLevel = Math.max(tally.maxLevel, result.getViolationLevel());
+                if (tally.reasons.size() < SAMPLE_REASONS) {
+                    tally.reasons.add(result.getReason());
+                }
+
+                // Same rule as CheckManager.handleViolation
+                if (run.violations().recordViolation(data.getUuid(), check) >= check.getViolationThreshold()) {
+                    tally.logged++;
+                }
+            }
+        }
+    }
+}
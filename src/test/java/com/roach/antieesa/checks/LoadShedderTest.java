@@ -0,0 +1,151 @@
+package com.roach.antieesa.checks;
+
+import com.roach.antieesa.checks.movement.SpeedCheck;
+import com.roach.antieesa.data.PlayerData;
+import com.roach.antieesa.violations.ViolationManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * LoadShedder's levels against fed tick durations, with the default 50ms
+ * budget: half sampling from a 45ms average, quarter from 50ms, and back
+ * down below 45ms and 40ms.
+ */
+public class LoadShedderTest {
+    private static final Logger LOGGER = Logger.getLogger("LoadShedderTest");
+
+    /**
+     * Feed ticks of one duration until the level changes.
+     * @return how many ticks it took
+     */
+    private static int ticksUntilChange(LoadShedder shedder, double durationMs) {
+        LoadShedder.Level start = shedder.getLevel();
+        for (int tick = 1; tick <= 1000; tick++) {
+            shedder.onTickEnd(durationMs);
+            if (shedder.getLevel() != start) {
+                return tick;
+            }
+        }
+        return fail("still " + start + " after 1000 ticks of " + durationMs + "ms");
+    }
+
+    private static void feed(LoadShedder shedder, double durationMs, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            shedder.onTickEnd(durationMs);
+        }
+    }
+
+    @Test
+    public void averageRisesGradually() {
+        LoadShedder shedder = new LoadShedder(new ViolationManager(), LOGGER);
+
+        // One lag spike moves the average by a tenth
+        shedder.onTickEnd(400);
+        assertEquals(40, shedder.getAverageMspt(), 1e-9);
+        assertEquals(LoadShedder.Level.NORMAL, shedder.getLevel());
+
+        // The average decays back under 45ms with normal ticks
+        feed(shedder, 20, 10);
+        assertEquals(LoadShedder.Level.NORMAL, shedder.getLevel());
+    }
+
+    @Test
+    public void sustainedOverloadStepsUpThroughBothLevels() {
+        LoadShedder shedder = new LoadShedder(new ViolationManager(), LOGGER);
+
+        // 100(1 - 0.9^n) first reaches 45 at n = 6 and 50 at n = 7
+        assertEquals(6, ticksUntilChange(shedder, 100));
+        assertEquals(LoadShedder.Level.SAMPLE_HALF, shedder.getLevel());
+        assertEquals(1, ticksUntilChange(shedder, 100));
+        assertEquals(LoadShedder.Level.SAMPLE_QUARTER, shedder.getLevel());
+    }
+
+    @Test
+    public void fullBudgetOnlyReachesHalfSampling() {
+        LoadShedder shedder = new LoadShedder(new ViolationManager(), LOGGER);
+
+        // 50(1 - 0.9^n) crosses 45 at n = 22 and never reaches 50
+        assertEquals(22, ticksUntilChange(shedder, 50));
+        feed(shedder, 50, 500);
+        assertEquals(LoadShedder.Level.SAMPLE_HALF, shedder.getLevel());
+    }
+
+    @Test
+    public void levelsStepDownWithHysteresis() {
+        LoadShedder shedder = new LoadShedder(new ViolationManager(), LOGGER);
+        feed(shedder, 100, 100);
+        assertEquals(LoadShedder.Level.SAMPLE_QUARTER, shedder.getLevel());
+
+        // 47.5ms is under the budget but not under the 45ms exit
+        feed(shedder, 47.5, 500);
+        assertEquals(LoadShedder.Level.SAMPLE_QUARTER, shedder.getLevel());
+
+        // 42ms leaves quarter sampling but stays above the 40ms exit from half
+        ticksUntilChange(shedder, 42);
+        assertEquals(LoadShedder.Level.SAMPLE_HALF, shedder.getLevel());
+        feed(shedder, 42, 500);
+        assertEquals(LoadShedder.Level.SAMPLE_HALF, shedder.getLevel());
+
+        ticksUntilChange(shedder, 30);
+        assertEquals(LoadShedder.Level.NORMAL, shedder.getLevel());
+
+        // From normal, 42ms is not enough to start shedding
+        feed(shedder, 42, 500);
+        assertEquals(LoadShedder.Level.NORMAL, shedder.getLevel());
+    }
+
+    @Test
+    public void disabledOrLargerBudgetStaysNormal() {
+        LoadShedder shedder = new LoadShedder(new ViolationManager(), LOGGER);
+
+        shedder.configure(false, 50);
+        feed(shedder, 200, 100);
+        assertEquals(LoadShedder.Level.NORMAL, shedder.getLevel());
+
+        // The average kept running while disabled
+        shedder.configure(true, 50);
+        shedder.onTickEnd(200);
+        assertEquals(LoadShedder.Level.SAMPLE_QUARTER, shedder.getLevel());
+
+        shedder.configure(true, 250);
+        ticksUntilChange(shedder, 200);
+        assertEquals(LoadShedder.Level.SAMPLE_HALF, shedder.getLevel());
+    }
+
+    @Test
+    public void onlyCleanPlayersAreSampled() {
+        ViolationManager violations = new ViolationManager();
+        LoadShedder shedder = new LoadShedder(violations, LOGGER);
+        SpeedCheck check = new SpeedCheck();
+        check.setId(0);
+        violations.registerCheck(check);
+
+        PlayerData clean = new PlayerData(UUID.randomUUID(), "Clean", List.of(check));
+        PlayerData flagged = new PlayerData(UUID.randomUUID(), "Flagged", List.of(check));
+        violations.recordViolation(flagged.getUuid(), check);
+
+        assertTrue(shedder.shouldCheckMove(clean));
+
+        feed(shedder, 100, 100);
+        assertEquals(LoadShedder.Level.SAMPLE_QUARTER, shedder.getLevel());
+
+        // Clean players get every 4th move, flagged players all of them
+        int checked = 0;
+        for (int i = 0; i < 40; i++) {
+            if (shedder.shouldCheckMove(clean)) {
+                checked++;
+            }
+            assertTrue(shedder.shouldCheckMove(flagged));
+        }
+        assertEquals(10, checked);
+        assertFalse(shedder.shouldCheckMove(clean));
+    }
+}
@@ -0,0 +1,68 @@
+package com.roach.antieesa.checks.combat;
+
+import com.roach.antieesa.checks.frame.CombatFrame;
+import com.roach.antieesa.checks.frame.PacketFrame;
+import com.roach.antieesa.data.PlayerData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Combat checks against hand-built frames, no server needed.
+ */
+public class CombatChecksTest {
+
+    // Attacker eyes level with the middle of a 1.8 tall target standing on y 64
+    private static CombatFrame hit(double targetZ, float yaw) {
+        return new CombatFrame(0, 0, 64.9, 0, yaw, 0, 2, true, 0, 64, targetZ, 0.6, 1.8);
+    }
+
+    @Test
+    public void frameGeometry() {
+        CombatFrame frame = hit(3, 0);
+        assertEquals(3.0, frame.distanceToTargetCenter(), 1e-9);
+        assertEquals(0.0, frame.angleToTargetCenter(), 1e-6);
+
+        // Facing -z, away from the target
+        assertEquals(180.0, hit(3, 180).angleToTargetCenter(), 1e-6);
+    }
+
+    @Test
+    public void reachNeedsTwoLongHits() {
+        ReachCheck check = new ReachCheck();
+        check.setId(0);
+        PlayerData data = new PlayerData(UUID.randomUUID(), "Test", List.of(check));
+
+        assertFalse(check.checkCombat(data, hit(2.5, 0)).isViolated());
+        assertFalse(check.checkCombat(data, hit(5, 0)).isViolated());
+        assertTrue(check.checkCombat(data, hit(5, 0)).isViolated());
+    }
+
+    @Test
+    public void killAuraFlagsRepeatedInstantAttacks() {
+        KillAuraCheck check = new KillAuraCheck();
+        check.setId(0);
+        PlayerData data = new PlayerData(UUID.randomUUID(), "Test", List.of(check));
+
+        // Attacks well after the flying packet never count
+        for (long t = 0; t < 2000; t += 100) {
+            assertFalse(check.checkPacket(data, new PacketFrame(t, PacketFrame.Kind.FLYING)).isViolated());
+            assertFalse(check.checkPacket(data, new PacketFrame(t + 50, PacketFrame.Kind.ATTACK)).isViolated());
+        }
+
+        // Attacks 1ms after flying flag once more than 10 have built up
+        int flags = 0;
+        for (long t = 10000; t < 10000 + 11 * 100; t += 100) {
+            check.checkPacket(data, new PacketFrame(t, PacketFrame.Kind.FLYING));
+            if (check.checkPacket(data, new PacketFrame(t + 1, PacketFrame.Kind.ATTACK)).isViolated()) {
+                flags++;
+            }
+        }
+        assertEquals(1, flags);
+    }
+}
@@ -0,0 +1,70 @@
+package com.roach.antieesa.checks.movement;
+
+import com.roach.antieesa.checks.CheckResult;
+import com.roach.antieesa.checks.frame.MovementFrame;
+import com.roach.antieesa.data.PlayerData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SpeedCheck against hand-built frames, no server needed.
+ */
+public class SpeedCheckTest {
+
+    private static PlayerData playerData(SpeedCheck check) {
+        check.setId(0);
+        return new PlayerData(UUID.randomUUID(), "Test", List.of(check));
+    }
+
+    private static MovementFrame move(double distance, boolean sprinting, int speedAmplifier) {
+        return new MovementFrame(0, 0, 64, 0, distance, 64, 0, 0, 0, sprinting, speedAmplifier);
+    }
+
+    @Test
+    public void walkingPasses() {
+        SpeedCheck check = new SpeedCheck();
+        assertFalse(check.checkMovement(playerData(check), move(0.2, false, -1)).isViolated());
+    }
+
+    @Test
+    public void doubleSprintSpeedIsBlatant() {
+        SpeedCheck check = new SpeedCheck();
+        CheckResult result = check.checkMovement(playerData(check), move(0.9, true, -1));
+
+        assertTrue(result.isViolated());
+        assertEquals(5, result.getViolationLevel());
+    }
+
+    @Test
+    public void speedEffectRaisesTheLimit() {
+        SpeedCheck check = new SpeedCheck();
+        PlayerData data = playerData(check);
+
+        assertTrue(check.checkMovement(data, move(0.5, true, -1)).isViolated());
+        assertFalse(check.checkMovement(data, move(0.5, true, 1)).isViolated());
+    }
+
+    @Test
+    public void perTickComparesNetDisplacementWithSummedLimits() {
+        SpeedCheck check = new SpeedCheck(true, false);
+        PlayerData data = playerData(check);
+
+        // Two walking moves in one tick are within two moves' allowance
+        assertFalse(check.checkMovement(data, move(0.2, false, -1)).isViolated());
+        assertFalse(check.checkMovement(data, move(0.2, false, -1)).isViolated());
+        assertFalse(check.tick(data).isViolated());
+
+        // Per-tick mode only flags from tick()
+        assertFalse(check.checkMovement(data, move(0.9, false, -1)).isViolated());
+        assertTrue(check.tick(data).isViolated());
+
+        // Nothing moved since the last evaluation
+        assertFalse(check.tick(data).isViolated());
+    }
+}
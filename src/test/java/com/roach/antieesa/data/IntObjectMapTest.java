@@ -0,0 +1,59 @@
+package com.roach.antieesa.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * IntObjectMap's probing, growth and removal.
+ */
+public class IntObjectMapTest {
+
+    @Test
+    public void putGetAndReplace() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(0, "zero");
+        map.put(-7, "negative");
+        map.put(7, "seven");
+        map.put(7, "SEVEN");
+
+        assertEquals("zero", map.get(0));
+        assertEquals("negative", map.get(-7));
+        assertEquals("SEVEN", map.get(7));
+        assertNull(map.get(8));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 16, i);
+        }
+
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 16));
+        }
+    }
+
+    @Test
+    public void removeIfKeepsTheRestReachable() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int i = 0; i < 200; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(100, map.removeIf(value -> value % 2 == 0));
+        assertEquals(100, map.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.get(i));
+        }
+
+        // Removed keys can be added back
+        map.put(4, 4);
+        assertEquals(4, map.get(4));
+        assertEquals(0, map.removeIf(value -> false));
+    }
+}
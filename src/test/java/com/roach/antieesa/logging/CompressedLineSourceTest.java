@@ -0,0 +1,106 @@
+package com.roach.antieesa.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Paging through gzipped days while only holding the requested window.
+ */
+public class CompressedLineSourceTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A merged day: Alice's lines 0..count-1 interleaved with Bob's.
+     */
+    private File mergedDay(int count) throws IOException {
+        File file = directory.resolve("merged.log.gz").toFile();
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+                StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                out.write("Alice: line " + i + "\n");
+                out.write("Bob: other " + i + "\n");
+            }
+        }
+        return file;
+    }
+
+    private static List<String> readAll(LineSource source) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = source.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void firstPageIsNewestFirstWithPrefixStripped() throws IOException {
+        try (LineSource source = new CompressedLineSource(mergedDay(100), "Alice: ", 0, 3)) {
+            assertEquals("line 99", source.readLine());
+            assertEquals("line 98", source.readLine());
+            assertEquals("line 97", source.readLine());
+        }
+    }
+
+    @Test
+    public void skippedPagesLandOnTheRightLines() throws IOException {
+        try (LineSource source = new CompressedLineSource(mergedDay(100), "Alice: ", 40, 11)) {
+            for (int i = 0; i < 40; i++) {
+                source.skipLine();
+            }
+            assertEquals("line 59", source.readLine());
+            assertEquals("line 58", source.readLine());
+        }
+    }
+
+    @Test
+    public void readingPastTheWindowLoadsTheNextOne() throws IOException {
+        try (LineSource source = new CompressedLineSource(mergedDay(25), "Alice: ", 0, 4)) {
+            List<String> lines = readAll(source);
+
+            assertEquals(25, lines.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals("line " + (24 - i), lines.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void withoutPrefixEveryLineIsKept() throws IOException {
+        try (LineSource source = new CompressedLineSource(mergedDay(2), null, 1, 10)) {
+            source.skipLine();
+            assertEquals(List.of("Alice: line 1", "Bob: other 0", "Alice: line 0"), readAll(source));
+        }
+    }
+
+    @Test
+    public void skippingPastTheEnd() throws IOException {
+        try (LineSource source = new CompressedLineSource(mergedDay(5), "Bob: ", 8, 2)) {
+            for (int i = 0; i < 5; i++) {
+                source.skipLine();
+            }
+            assertFalse(source.skipLine());
+            assertNull(source.readLine());
+        }
+        try (LineSource source = new CompressedLineSource(mergedDay(5), "Carol: ", 0, 2)) {
+            assertNull(source.readLine());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.roach.antieesa.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reading logs backwards across block boundaries and line ending quirks.
+ */
+public class ReverseLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private File write(String contents) throws IOException {
+        Path file = directory.resolve("latest.log");
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static List<String> readAll(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ReverseLineReader reader = new ReverseLineReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void linesComeNewestFirst() throws IOException {
+        assertEquals(List.of("third", "", "first"), readAll(write("first\n\nthird\n")));
+    }
+
+    @Test
+    public void trailingPartialLineIsSkipped() throws IOException {
+        assertEquals(List.of("second", "first"), readAll(write("first\nsecond\nthir")));
+        assertTrue(readAll(write("only a partial line")).isEmpty());
+    }
+
+    @Test
+    public void emptyFileHasNoLines() throws IOException {
+        File file = write("");
+        try (ReverseLineReader reader = new ReverseLineReader(file)) {
+            assertNull(reader.readLine());
+            assertFalse(reader.skipLine());
+        }
+    }
+
+    @Test
+    public void crlfEndingsAreStripped() throws IOException {
+        assertEquals(List.of("two", "one"), readAll(write("one\r\ntwo\r\n")));
+    }
+
+    @Test
+    public void linesSpanningBlocksAreJoined() throws IOException {
+        // Longer than a block, and multi-byte characters straddling a boundary
+        String longLine = "x".repeat(20_000);
+        String accented = "é".repeat(6_000);
+        File file = write("head\n" + longLine + "\n" + accented + "\ntail\n");
+
+        assertEquals(List.of("tail", accented, longLine, "head"), readAll(file));
+    }
+
+    @Test
+    public void skipLineStepsOverWithoutReading() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            contents.append("line ").append(i).append('\n');
+        }
+
+        try (ReverseLineReader reader = new ReverseLineReader(write(contents.toString()))) {
+            for (int i = 0; i < 3_000; i++) {
+                assertTrue(reader.skipLine());
+            }
+            assertEquals("line 1999", reader.readLine());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.roach.antieesa.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Journal round trips across a segment roll-over and a restart.
+ */
+public class ViolationJournalTest {
+    private static final Logger LOGGER = Logger.getLogger("ViolationJournalTest");
+
+    // Long enough that a few thousand records fill a segment
+    private static final String REASON = "x".repeat(900);
+
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Alternate Alice and Bob at one record per ms until a second segment is
+     * well under way.
+     * @return how many records were appended
+     */
+    private static int fillPastOneSegment(ViolationJournal journal, File directory) {
+        int appended = 0;
+        while (!JournalSegment.dataFile(directory, 2).exists() || appended % 1000 != 0) {
+            UUID player = appended % 2 == 0 ? ALICE : BOB;
+            String check = appended % 3 == 0 ? "Reach" : "Speed";
+            journal.append(appended, player, check, appended % 5 + 1, appended, REASON + appended);
+            appended++;
+        }
+        return appended;
+    }
+
+    private static void assertAliceRecords(List<JournalRecord> records, long from, long to) {
+        long first = from % 2 == 0 ? from : from + 1;
+        assertEquals((to - first) / 2 + 1, records.size());
+
+        long expected = first;
+        for (JournalRecord record : records) {
+            assertEquals(expected, record.timestamp());
+            assertEquals(ALICE, record.player());
+            assertEquals(expected % 3 == 0 ? "Reach" : "Speed", record.check());
+            assertEquals(expected % 5 + 1, record.level());
+            assertEquals(expected, record.count());
+            assertEquals(REASON + expected, record.reason());
+            expected += 2;
+        }
+    }
+
+    @Test
+    public void queryAcrossSegmentBoundary() throws IOException {
+        File dir = directory.toFile();
+        ViolationJournal journal = new ViolationJournal(dir, LOGGER);
+        int appended = fillPastOneSegment(journal, dir);
+
+        assertTrue(JournalSegment.indexFile(dir, 1).exists(), "first segment sealed");
+        assertAliceRecords(journal.query(ALICE, 0, appended - 1), 0, appended - 1);
+
+        // A window around the last quarter, which spans the roll-over
+        long from = appended * 3L / 4 - 2001;
+        long to = appended - 1;
+        assertAliceRecords(journal.query(ALICE, from, to), from, to);
+
+        assertTrue(journal.query(new UUID(3, 3), 0, appended).isEmpty());
+        assertTrue(journal.query(ALICE, appended, Long.MAX_VALUE).isEmpty());
+        journal.close();
+    }
+
+    @Test
+    public void reopenReadsManifestsAndResumesTheActiveSegment() throws IOException {
+        File dir = directory.toFile();
+        ViolationJournal journal = new ViolationJournal(dir, LOGGER);
+        int appended = fillPastOneSegment(journal, dir);
+        journal.close();
+
+        ViolationJournal reopened = new ViolationJournal(dir, LOGGER);
+        assertAliceRecords(reopened.query(ALICE, 0, appended - 1), 0, appended - 1);
+
+        // Appends continue in the recovered segment after the existing records
+        reopened.append(appended, ALICE, "Reach", 3, appended, REASON + appended);
+        List<JournalRecord> latest = reopened.query(ALICE, appended, appended);
+        assertEquals(1, latest.size());
+        assertEquals("Reach", latest.get(0).check());
+        assertEquals(2, reopened.query(BOB, 1, 3).size());
+        reopened.close();
+    }
+}
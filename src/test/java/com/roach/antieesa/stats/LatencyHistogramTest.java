@@ -0,0 +1,91 @@
+package com.roach.antieesa.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bucket boundaries, percentiles and reset of LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    private static void assertBucketHolds(long value) {
+        int bucket = LatencyHistogram.bucketOf(value);
+        assertTrue(LatencyHistogram.upperBound(bucket) >= value, "upper bound of " + value);
+        if (bucket > 0) {
+            assertTrue(LatencyHistogram.upperBound(bucket - 1) < value, "previous bucket of " + value);
+        }
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        for (int value = 0; value < 8; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value, LatencyHistogram.upperBound(value));
+        }
+    }
+
+    @Test
+    public void everyValueLandsInsideItsBucket() {
+        for (int shift = 0; shift < 63; shift++) {
+            long power = 1L << shift;
+            assertBucketHolds(power - 1);
+            assertBucketHolds(power);
+            assertBucketHolds(power + 1);
+            assertBucketHolds(power + power / 2);
+        }
+        assertBucketHolds(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void bucketsStayWithinAQuarter() {
+        for (long value = 4; value < 1 << 20; value += 37) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value));
+            assertTrue(upper - value <= value / 4, "bucket of " + value + " ends at " + upper);
+        }
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(10);
+        }
+        histogram.record(1000);
+        histogram.record(1000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        // 10 shares the [10, 11] bucket
+        assertEquals(11, snapshot.p50());
+        // 1000's bucket ends at 1023, but no percentile reports above max
+        assertEquals(1000, snapshot.p99());
+        assertEquals(1000, snapshot.max());
+    }
+
+    @Test
+    public void negativeDurationsCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.count());
+        assertEquals(0, snapshot.p99());
+        assertEquals(0, snapshot.max());
+    }
+
+    @Test
+    public void resetClearsCountsAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(70_000);
+        histogram.reset();
+
+        assertEquals(new LatencyHistogram.Snapshot(0, 0, 0, 0), histogram.snapshot());
+
+        histogram.record(3);
+        assertEquals(new LatencyHistogram.Snapshot(1, 3, 3, 3), histogram.snapshot());
+    }
+}
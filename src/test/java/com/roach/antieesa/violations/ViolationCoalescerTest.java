@@ -0,0 +1,186 @@
+package com.roach.antieesa.violations;
+
+import com.roach.antieesa.checks.Check;
+import com.roach.antieesa.checks.CheckResult;
+import com.roach.antieesa.checks.movement.SpeedCheck;
+import com.roach.antieesa.logging.ViolationLogger;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Coalescing windows against a hand-driven clock, with a logger that only
+ * records what it was asked to write.
+ */
+public class ViolationCoalescerTest {
+
+    private record Logged(UUID player, String check, int level, String reason, int total, int flags) {
+    }
+
+    private static class RecordingLogger extends ViolationLogger {
+        final List<Logged> logged = new ArrayList<>();
+
+        RecordingLogger(Plugin plugin) {
+            super(plugin, false, false, false, 0);
+        }
+
+        @Override
+        public void logViolation(Player player, Check check, CheckResult result, int totalViolations, int flags) {
+            logged.add(new Logged(player.getUniqueId(), check.getName(), result.getViolationLevel(),
+                    result.getReason(), totalViolations, flags));
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    private final long[] clock = {1_000_000};
+    private RecordingLogger logger;
+    private ViolationCoalescer coalescer;
+    private Check speed;
+
+    @BeforeEach
+    public void setUp() {
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDataFolder" -> directory.toFile();
+                    case "getLogger" -> Logger.getLogger("ViolationCoalescerTest");
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        logger = new RecordingLogger(plugin);
+        coalescer = new ViolationCoalescer(logger, () -> clock[0]);
+        speed = new SpeedCheck();
+        speed.setId(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.shutdown();
+    }
+
+    private static Player player(UUID uuid) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> uuid;
+                    case "getName" -> "Player" + uuid.getLeastSignificantBits();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static CheckResult flag(int level, String reason) {
+        return CheckResult.fail(reason, level);
+    }
+
+    @Test
+    public void firstFlagIsLoggedAndTheRestSummarised() {
+        Player alice = player(new UUID(0, 1));
+
+        coalescer.log(alice, speed, flag(2, "first"), 1);
+        assertEquals(1, logger.logged.size());
+        assertEquals(new Logged(alice.getUniqueId(), speed.getName(), 2, "first", 1, 1), logger.logged.get(0));
+
+        clock[0] += 1000;
+        coalescer.log(alice, speed, flag(3, "mild"), 2);
+        clock[0] += 1000;
+        coalescer.log(alice, speed, flag(5, "worst"), 3);
+        coalescer.log(alice, speed, flag(1, "light"), 4);
+        assertEquals(1, logger.logged.size());
+
+        // Still open one ms before the window ends
+        clock[0] += 2999;
+        coalescer.flushExpired();
+        assertEquals(1, logger.logged.size());
+
+        clock[0] += 1;
+        coalescer.flushExpired();
+        assertEquals(2, logger.logged.size());
+        assertEquals(new Logged(alice.getUniqueId(), speed.getName(), 5,
+                String.format("+3 flags in %.1fs (level 1-5), worst: worst", 5.0), 4, 3), logger.logged.get(1));
+
+        // The next flag opens a fresh window
+        coalescer.log(alice, speed, flag(2, "again"), 5);
+        assertEquals(3, logger.logged.size());
+        assertEquals("again", logger.logged.get(2).reason());
+    }
+
+    @Test
+    public void windowWithoutRepeatsClosesSilently() {
+        coalescer.log(player(new UUID(0, 1)), speed, flag(2, "once"), 1);
+        clock[0] += 5000;
+        coalescer.flushExpired();
+
+        assertEquals(1, logger.logged.size());
+    }
+
+    @Test
+    public void windowsArePerPlayerAndCheck() {
+        Player alice = player(new UUID(0, 1));
+        Player bob = player(new UUID(0, 2));
+        Check other = new SpeedCheck();
+        other.setId(3);
+
+        coalescer.log(alice, speed, flag(2, "alice speed"), 1);
+        coalescer.log(alice, other, flag(2, "alice other"), 1);
+        coalescer.log(bob, speed, flag(2, "bob speed"), 1);
+        assertEquals(3, logger.logged.size());
+
+        coalescer.log(alice, other, flag(4, "alice other again"), 2);
+        clock[0] += 5000;
+        coalescer.flushExpired();
+
+        assertEquals(4, logger.logged.size());
+        Logged summary = logger.logged.get(3);
+        assertEquals(alice.getUniqueId(), summary.player());
+        assertTrue(summary.reason().startsWith("+1 flags"), summary.reason());
+    }
+
+    @Test
+    public void quitAndShutdownFlushEarly() {
+        Player alice = player(new UUID(0, 1));
+        Player bob = player(new UUID(0, 2));
+
+        coalescer.log(alice, speed, flag(2, "a"), 1);
+        coalescer.log(alice, speed, flag(2, "a"), 2);
+        coalescer.log(bob, speed, flag(3, "b"), 1);
+        coalescer.log(bob, speed, flag(3, "b"), 2);
+
+        clock[0] += 1500;
+        coalescer.flush(alice.getUniqueId());
+        assertEquals(3, logger.logged.size());
+        assertEquals(String.format("+1 flags in %.1fs (level 2-2), worst: a", 1.5), logger.logged.get(2).reason());
+
+        coalescer.flushAll();
+        assertEquals(4, logger.logged.size());
+        assertEquals(bob.getUniqueId(), logger.logged.get(3).player());
+
+        // Nothing is left for the tick flush
+        clock[0] += 10_000;
+        coalescer.flushExpired();
+        assertEquals(4, logger.logged.size());
+    }
+
+    @Test
+    public void zeroWindowLogsEveryFlag() {
+        coalescer.setWindow(0);
+        Player alice = player(new UUID(0, 1));
+        for (int i = 1; i <= 3; i++) {
+            coalescer.log(alice, speed, flag(2, "flag " + i), i);
+        }
+
+        assertEquals(3, logger.logged.size());
+        assertEquals("flag 3", logger.logged.get(2).reason());
+    }
+}